@@ -0,0 +1,90 @@
+package org.jglrxavpok.mods.decraft.item.uncrafting;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.NonNullList;
+
+
+/**
+ * Benchmarks for removing materials from the crafting grid of a damaged item
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class DamageTrimmingBenchmark
+{
+
+	/**
+	 * The percentage of the item's durability which has been used
+	 */
+	@Param({ "10", "50", "90" })
+	public int damagePercentage;
+
+	private ItemStack pickaxeStack;
+	private ItemStack chestplateStack;
+	private NonNullList<ItemStack> pickaxeGrid;
+	private NonNullList<ItemStack> chestplateGrid;
+
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		SyntheticRecipes.initialize();
+
+		this.pickaxeStack = new ItemStack(Items.IRON_PICKAXE);
+		this.pickaxeStack.setItemDamage((this.pickaxeStack.getMaxDamage() * this.damagePercentage) / 100);
+		this.pickaxeGrid = NonNullList.<ItemStack>from(ItemStack.EMPTY,
+			new ItemStack(Items.IRON_INGOT), new ItemStack(Items.IRON_INGOT), new ItemStack(Items.IRON_INGOT),
+			ItemStack.EMPTY, new ItemStack(Items.STICK), ItemStack.EMPTY,
+			ItemStack.EMPTY, new ItemStack(Items.STICK), ItemStack.EMPTY);
+
+		this.chestplateStack = new ItemStack(Items.LEATHER_CHESTPLATE);
+		this.chestplateStack.setItemDamage((this.chestplateStack.getMaxDamage() * this.damagePercentage) / 100);
+		this.chestplateGrid = NonNullList.<ItemStack>from(ItemStack.EMPTY,
+			new ItemStack(Items.LEATHER), ItemStack.EMPTY, new ItemStack(Items.LEATHER),
+			new ItemStack(Items.LEATHER), new ItemStack(Items.LEATHER), new ItemStack(Items.LEATHER),
+			new ItemStack(Items.LEATHER), new ItemStack(Items.LEATHER), new ItemStack(Items.LEATHER));
+	}
+
+
+	@Benchmark
+	public NonNullList<ItemStack> removeItemsFromPickaxe()
+	{
+		return UncraftingManager.removeItemsFromOutputByDamage(this.pickaxeStack, copy(this.pickaxeGrid));
+	}
+
+	@Benchmark
+	public NonNullList<ItemStack> removeItemsFromChestplate()
+	{
+		return UncraftingManager.removeItemsFromOutputByDamage(this.chestplateStack, copy(this.chestplateGrid));
+	}
+
+
+	/**
+	 * removeItemsFromOutputByDamage modifies the grid it's given, so each call needs a fresh one
+	 */
+	private static NonNullList<ItemStack> copy(NonNullList<ItemStack> craftingGrid)
+	{
+		NonNullList<ItemStack> result = NonNullList.<ItemStack>withSize(craftingGrid.size(), ItemStack.EMPTY);
+		for ( int i = 0 ; i < craftingGrid.size() ; i++ ) result.set(i, craftingGrid.get(i).copy());
+		return result;
+	}
+
+}
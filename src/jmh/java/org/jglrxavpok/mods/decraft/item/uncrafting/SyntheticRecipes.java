@@ -0,0 +1,118 @@
+package org.jglrxavpok.mods.decraft.item.uncrafting;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.RecipeHandlers;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.util.NonNullList;
+
+
+/**
+ * Fills the uncrafting manager with a synthetic set of recipes and CraftTweaker block list entries for the benchmarks,
+ * so that they can be run outside of a running game against registries of a known size.
+ *
+ */
+public final class SyntheticRecipes
+{
+
+	private static boolean initialized = false;
+	private static List<Item> items = null;
+	private static List<Item> undamageableItems = null;
+
+
+	/**
+	 * Registers the vanilla blocks and items, and initializes the recipe handlers. Only does anything the first time it's called.
+	 */
+	public static synchronized void initialize()
+	{
+		if (initialized) return;
+
+		Bootstrap.register();
+		RecipeHandlers.postInit();
+
+		items = new ArrayList<Item>();
+		undamageableItems = new ArrayList<Item>();
+		for ( Item item : Item.REGISTRY )
+		{
+			items.add(item);
+			if (!item.isDamageable()) undamageableItems.add(item);
+		}
+
+		initialized = true;
+	}
+
+
+	/**
+	 * Replaces the uncrafting recipes and the CraftTweaker block lists with synthetic ones.
+	 * The outputs of the recipes are spread across all the registered items, so the number of recipes which could produce
+	 * any one item grows with the recipe count in the same way it does in a large mod pack.
+	 * @param recipeCount The number of uncrafting recipes to add
+	 * @param blockedCount The number of entries to add to each of the CraftTweaker item lists. A tenth as many recipes are blocked.
+	 */
+	public static void populate(int recipeCount, int blockedCount)
+	{
+		initialize();
+		clear();
+
+		for ( int i = 0 ; i < recipeCount ; i++ )
+		{
+			IRecipe recipe = createRecipe(i);
+			UncraftingManager.recipes.add(recipe);
+			if (i < blockedCount / 10) UncraftingManager.blockedRecipes.add(createRecipe(i + recipeCount));
+		}
+
+		for ( int i = 0 ; i < blockedCount ; i++ )
+		{
+			// use metadata values no recipe will contain, so the lists are the right size without blocking anything we look up.
+			// damageable items match regardless of their metadata, so they're left out of the lists altogether.
+			Item item = undamageableItems.get(i % undamageableItems.size());
+			int meta = 1000 + (i / undamageableItems.size());
+			UncraftingManager.blockedItems.add(new ItemStack(item, 1, meta));
+			UncraftingManager.blockedIngredients.add(new ItemStack(item, 1, meta));
+			UncraftingManager.removedIngredients.add(new ItemStack(item, 1, meta));
+		}
+
+		UncraftingManager.invalidateRecipeIndex();
+		UncraftingManager.invalidateBlockLists();
+		UncraftingManager.buildRecipeIndex();
+	}
+
+	/**
+	 * Removes everything added by populate.
+	 */
+	public static void clear()
+	{
+		UncraftingManager.recipes.clear();
+		UncraftingManager.blockedRecipes.clear();
+		UncraftingManager.blockedItems.clear();
+		UncraftingManager.blockedIngredients.clear();
+		UncraftingManager.removedIngredients.clear();
+
+		UncraftingManager.invalidateRecipeIndex();
+		UncraftingManager.invalidateBlockLists();
+	}
+
+
+	/**
+	 * Creates a 3x3 shaped recipe whose output and ingredients are picked from the registered items based on the given index.
+	 */
+	private static IRecipe createRecipe(int index)
+	{
+		Item output = items.get(index % items.size());
+
+		NonNullList<Ingredient> ingredients = NonNullList.<Ingredient>withSize(9, Ingredient.EMPTY);
+		for ( int i = 0 ; i < ingredients.size() ; i++ )
+		{
+			Item item = items.get(((index * 7) + (i * 31) + 1) % items.size());
+			if (item != output) ingredients.set(i, Ingredient.fromStacks(new ItemStack(item)));
+		}
+
+		return new ShapedRecipes("synthetic", 3, 3, ingredients, new ItemStack(output));
+	}
+
+}
@@ -0,0 +1,97 @@
+package org.jglrxavpok.mods.decraft.item.uncrafting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.NonNullList;
+
+
+/**
+ * Benchmarks for looking up the uncrafting result of an item against synthetic recipe registries of different sizes
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class UncraftingLookupBenchmark
+{
+
+	@Param({ "1000", "10000", "50000" })
+	public int recipeCount;
+
+	@Param({ "0", "100", "1000" })
+	public int blockedCount;
+
+	private ItemStack inputStack;
+	private ItemStack damagedStack;
+
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		SyntheticRecipes.populate(this.recipeCount, this.blockedCount);
+
+		this.inputStack = new ItemStack(Items.IRON_PICKAXE);
+		this.damagedStack = new ItemStack(Items.IRON_PICKAXE);
+		this.damagedStack.setItemDamage(this.damagedStack.getMaxDamage() / 3);
+
+		// make sure the block lists haven't blocked the input, otherwise we'd only be measuring the early return
+		if (UncraftingManager.findMatchingRecipes(this.inputStack).isEmpty())
+		{
+			throw new IllegalStateException("The benchmark input " + this.inputStack + " has no uncrafting recipes");
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		SyntheticRecipes.clear();
+	}
+
+
+	/**
+	 * The full lookup performed when an item is placed in the uncrafting table, including any caching of previous results
+	 */
+	@Benchmark
+	public UncraftingResult getUncraftingResult()
+	{
+		return UncraftingManager.getUncraftingResult(this.inputStack, false, 30);
+	}
+
+	/**
+	 * The recipe search on its own, as it would run the first time an item is looked up
+	 */
+	@Benchmark
+	public List<Map.Entry<NonNullList<ItemStack>,Integer>> findMatchingRecipes()
+	{
+		return UncraftingManager.findMatchingRecipes(this.inputStack);
+	}
+
+	/**
+	 * The recipe search for a damaged item, which also trims the materials returned from each crafting grid
+	 */
+	@Benchmark
+	public List<Map.Entry<NonNullList<ItemStack>,Integer>> findMatchingRecipesDamaged()
+	{
+		return UncraftingManager.findMatchingRecipes(this.damagedStack);
+	}
+
+}
@@ -10,6 +10,8 @@ import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppedEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
 
@@ -56,4 +58,16 @@ public class ModUncrafting
 		proxy.postInit();
 	}
 
+	@EventHandler
+	public void serverStarting(FMLServerStartingEvent event)
+	{
+		proxy.serverStarting(event);
+	}
+
+	@EventHandler
+	public void serverStopped(FMLServerStoppedEvent event)
+	{
+		proxy.serverStopped();
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package org.jglrxavpok.mods.decraft.block;
+
+import org.jglrxavpok.mods.decraft.common.config.ModConfiguration;
+import org.jglrxavpok.mods.decraft.tileentity.TileEntityAutomaticUncraftingTable;
+import net.minecraft.block.Block;
+import net.minecraft.block.SoundType;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.creativetab.CreativeTabs;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.inventory.InventoryHelper;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.EnumHand;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentTranslation;
+import net.minecraft.world.World;
+
+
+/**
+ * An uncrafting table which uncrafts items inserted by hoppers and pipes, without a player.
+ * Right clicking the table stores one of the player's experience levels in it, to pay for the uncrafting.
+ *
+ */
+public class BlockAutomaticUncraftingTable extends Block
+{
+
+	public BlockAutomaticUncraftingTable()
+	{
+		super(Material.ROCK);
+		setHardness(3.5F);
+		setSoundType(SoundType.STONE);
+		this.setCreativeTab(CreativeTabs.DECORATIONS);
+	}
+
+
+	@Override
+	public boolean hasTileEntity(IBlockState state)
+	{
+		return true;
+	}
+
+	@Override
+	public TileEntity createTileEntity(World world, IBlockState state)
+	{
+		return new TileEntityAutomaticUncraftingTable();
+	}
+
+
+	@Override
+	public void onBlockPlacedBy(World world, BlockPos pos, IBlockState state, EntityLivingBase placer, ItemStack stack)
+	{
+		// record the player who placed the table, so that the scheduler can share time fairly between players
+		TileEntity tileEntity = world.getTileEntity(pos);
+		if (tileEntity instanceof TileEntityAutomaticUncraftingTable && placer instanceof EntityPlayer)
+		{
+			((TileEntityAutomaticUncraftingTable)tileEntity).setOwner(placer.getUniqueID());
+		}
+	}
+
+
+	@Override
+	public boolean onBlockActivated(World world, BlockPos pos, IBlockState state, EntityPlayer player, EnumHand hand, EnumFacing side, float hitX, float hitY, float hitZ)
+	{
+		if (!world.isRemote && hand == EnumHand.MAIN_HAND)
+		{
+			TileEntity tileEntity = world.getTileEntity(pos);
+			if (tileEntity instanceof TileEntityAutomaticUncraftingTable)
+			{
+				TileEntityAutomaticUncraftingTable table = (TileEntityAutomaticUncraftingTable)tileEntity;
+
+				// unless sneaking, move one of the player's experience levels into the table
+				if (ModConfiguration.automationUsesExperience && !player.isSneaking() && (player.capabilities.isCreativeMode || player.experienceLevel > 0))
+				{
+					if (table.addExperience(1) > 0 && !player.capabilities.isCreativeMode) player.addExperienceLevel(-1);
+				}
+
+				player.sendStatusMessage(new TextComponentTranslation("container.uncrafting.automatic.experience", table.getStoredExperience(), ModConfiguration.automationExperienceCapacity), true);
+			}
+		}
+		return true;
+	}
+
+
+	@Override
+	public void breakBlock(World world, BlockPos pos, IBlockState state)
+	{
+		TileEntity tileEntity = world.getTileEntity(pos);
+		if (tileEntity instanceof TileEntityAutomaticUncraftingTable)
+		{
+			// drop the items in the table
+			for ( ItemStack stack : ((TileEntityAutomaticUncraftingTable)tileEntity).getContents() )
+			{
+				InventoryHelper.spawnItemStack(world, pos.getX(), pos.getY(), pos.getZ(), stack);
+			}
+		}
+		super.breakBlock(world, pos, state);
+	}
+
+}
@@ -35,6 +35,7 @@ public class ModGuiConfig extends GuiConfig
 
 		// second level settings
 		list.add(new DummyCategoryElement("nuggetsConfigDummyElement", "uncrafting.options.nuggets", CategoryEntryNuggets.class));
+		list.add(new DummyCategoryElement("automationConfigDummyElement", "uncrafting.options.automation", CategoryEntryAutomation.class));
 
 		return list;
 	}
@@ -67,4 +68,32 @@ public class ModGuiConfig extends GuiConfig
 		}
 	}
 
-}
\ No newline at end of file
+
+	public static class CategoryEntryAutomation extends CategoryEntry
+	{
+
+		public CategoryEntryAutomation(GuiConfig owningScreen, GuiConfigEntries owningEntryList, IConfigElement configElement)
+		{
+			super(owningScreen, owningEntryList, configElement);
+		}
+
+		@Override
+		protected GuiScreen buildChildScreen()
+		{
+			Configuration configuration = ModConfiguration.getConfig();
+			ConfigElement configurationCategory = new ConfigElement(configuration.getCategory(ModConfiguration.CATEGORY_AUTOMATION));
+			List<IConfigElement> propertiesOnThisScreen = configurationCategory.getChildElements();
+			String windowTitle = I18n.format("uncrafting.options.automation");
+
+			return new GuiConfig(this.owningScreen, propertiesOnThisScreen,
+				this.owningScreen.modID,
+				ModConfiguration.CATEGORY_AUTOMATION,
+				this.configElement.requiresWorldRestart() || this.owningScreen.allRequireWorldRestart,
+				this.configElement.requiresMcRestart() || this.owningScreen.allRequireMcRestart,
+				windowTitle
+			);
+
+		}
+	}
+
+}
@@ -1,11 +1,14 @@
 package org.jglrxavpok.mods.decraft.client.gui.inventory;
 
+import java.util.Arrays;
 import org.jglrxavpok.mods.decraft.ModUncrafting;
+import org.jglrxavpok.mods.decraft.common.network.message.BulkUncraftMessage;
 import org.jglrxavpok.mods.decraft.common.network.message.RecipeNavigationMessage;
 import org.jglrxavpok.mods.decraft.inventory.ContainerUncraftingTable;
 import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult.ResultType;
 import org.lwjgl.opengl.GL11;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiButton;
 import net.minecraft.client.gui.inventory.GuiContainer;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.RenderHelper;
@@ -18,6 +21,7 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.NonNullList;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.text.TextFormatting;
 import net.minecraft.world.World;
 
 
@@ -28,8 +32,9 @@ public class GuiUncraftingTable extends GuiContainer
 	public ContainerUncraftingTable container;
 	private World worldObj;
 	private EntityPlayer player;
-	private GuiButton previousRecipeButton;
-	private GuiButton nextRecipeButton;
+	private ArrowButton previousRecipeButton;
+	private ArrowButton nextRecipeButton;
+	private GuiButton bulkUncraftButton;
 
 	public GuiUncraftingTable(InventoryPlayer playerInventory, World world)
 	{
@@ -51,11 +56,14 @@ public class GuiUncraftingTable extends GuiContainer
 		int guiX = (this.width - this.xSize) / 2;
 		int guiY = (this.height - this.ySize) / 2;
 
-		this.buttonList.add(this.nextRecipeButton = new GuiButton(1, guiX + 162, guiY + 20, ButtonFacing.RIGHT));
-		this.buttonList.add(this.previousRecipeButton = new GuiButton(2, guiX + 95, guiY + 20, ButtonFacing.LEFT));
+		this.buttonList.add(this.nextRecipeButton = new ArrowButton(1, guiX + 162, guiY + 20, ButtonFacing.RIGHT));
+		this.buttonList.add(this.previousRecipeButton = new ArrowButton(2, guiX + 95, guiY + 20, ButtonFacing.LEFT));
+
+		this.buttonList.add(this.bulkUncraftButton = new GuiButton(3, guiX + 70, guiY + 18, 22, 12, I18n.format("container.uncrafting.bulk")));
 
 		this.previousRecipeButton.visible = false;
 		this.nextRecipeButton.visible = false;
+		this.bulkUncraftButton.visible = false;
 	}
 
 
@@ -68,6 +76,11 @@ public class GuiUncraftingTable extends GuiContainer
 		this.drawDefaultBackground();
 		super.drawScreen(mouseX, mouseY, partialTicks);
 		this.renderHoveredToolTip(mouseX, mouseY);
+
+		if (this.bulkUncraftButton.isMouseOver())
+		{
+			this.drawHoveringText(Arrays.asList(I18n.format("container.uncrafting.bulk.tooltip"), TextFormatting.GRAY + I18n.format("container.uncrafting.bulk.tooltip.inventory")), mouseX, mouseY);
+		}
 	}
 
 	/**
@@ -78,6 +91,9 @@ public class GuiUncraftingTable extends GuiContainer
 	{
 		super.updateScreen();
 
+		// handle the changes the player's clicks have made to the input slots this tick
+		container.resolveChanges();
+
 		boolean haveMultipleRecipes = (container.uncraftingResult.getRecipeCount() > 1);
 		boolean hasNextRecipe = (container.uncraftingResult.selectedCraftingGrid < (container.uncraftingResult.getRecipeCount() - 1));
 		boolean hasPreviousRecipe = (container.uncraftingResult.selectedCraftingGrid > 0);
@@ -88,29 +104,36 @@ public class GuiUncraftingTable extends GuiContainer
 
 		this.previousRecipeButton.visible = (haveMultipleRecipes && canChangeRecipe && hasPreviousRecipe);
 		this.nextRecipeButton.enabled = this.nextRecipeButton.visible;
+
+		this.bulkUncraftButton.visible = container.canBulkUncraft();
 	}
 
 
 	@Override
-	protected void actionPerformed(net.minecraft.client.gui.GuiButton button)
+	protected void actionPerformed(GuiButton button)
 	{
 		if (button == this.previousRecipeButton || button == this.nextRecipeButton)
 		{
+			int recipeIndex = container.uncraftingResult.selectedCraftingGrid;
 			if (button == this.previousRecipeButton)
 			{
-				if (container.uncraftingResult.selectedCraftingGrid == 0) return;
-				container.uncraftingResult.selectedCraftingGrid--;
+				if (recipeIndex == 0) return;
+				recipeIndex--;
 			}
 			if (button == this.nextRecipeButton)
 			{
-				if (container.uncraftingResult.selectedCraftingGrid == (container.uncraftingResult.getRecipeCount() - 1)) return;
-				container.uncraftingResult.selectedCraftingGrid++;
+				if (recipeIndex == (container.uncraftingResult.getRecipeCount() - 1)) return;
+				recipeIndex++;
 			}
-			container.switchRecipe();
 
-			int recipeIndex = container.uncraftingResult.selectedCraftingGrid;
+			// the server switches the recipe and sends back the updated uncrafting result
 			ModUncrafting.NETWORK.sendToServer(new RecipeNavigationMessage(recipeIndex));
 		}
+		else if (button == this.bulkUncraftButton)
+		{
+			// uncraft the input stack, and if shift is held, every matching stack in the player's inventory
+			ModUncrafting.NETWORK.sendToServer(new BulkUncraftMessage(isShiftKeyDown()));
+		}
 	}
 
 
@@ -293,12 +316,12 @@ public class GuiUncraftingTable extends GuiContainer
 
 
 
-	private class GuiButton extends net.minecraft.client.gui.GuiButton
+	private class ArrowButton extends GuiButton
 	{
 
 		private final ButtonFacing facing;
 
-		public GuiButton(int buttonId, int x, int y, ButtonFacing facing)
+		public ArrowButton(int buttonId, int x, int y, ButtonFacing facing)
 		{
 			super(buttonId, x, y, 7, 11, "");
 			this.facing = facing;
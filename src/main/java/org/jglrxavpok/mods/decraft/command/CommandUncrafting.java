@@ -0,0 +1,70 @@
+package org.jglrxavpok.mods.decraft.command;
+
+import java.util.Collections;
+import java.util.List;
+import org.jglrxavpok.mods.decraft.stats.UncraftingMetrics;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextComponentTranslation;
+
+
+/**
+ * The "/uncrafting" server command. "/uncrafting stats" reports the uncrafting metrics, and "/uncrafting stats reset" clears them.
+ *
+ */
+public class CommandUncrafting extends CommandBase
+{
+
+	@Override
+	public String getName()
+	{
+		return "uncrafting";
+	}
+
+	@Override
+	public String getUsage(ICommandSender sender)
+	{
+		return "commands.uncrafting.usage";
+	}
+
+	@Override
+	public int getRequiredPermissionLevel()
+	{
+		return 2;
+	}
+
+	@Override
+	public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException
+	{
+		if (args.length == 0 || !args[0].equals("stats"))
+		{
+			throw new WrongUsageException("commands.uncrafting.usage");
+		}
+
+		if (args.length > 1 && args[1].equals("reset"))
+		{
+			UncraftingMetrics.reset();
+			sender.sendMessage(new TextComponentTranslation("commands.uncrafting.stats.reset"));
+			return;
+		}
+
+		for ( String line : UncraftingMetrics.getSummary() )
+		{
+			sender.sendMessage(new TextComponentString(line));
+		}
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos)
+	{
+		if (args.length == 1) return getListOfStringsMatchingLastWord(args, "stats");
+		if (args.length == 2 && args[0].equals("stats")) return getListOfStringsMatchingLastWord(args, "reset");
+		return Collections.<String>emptyList();
+	}
+
+}
@@ -2,12 +2,18 @@ package org.jglrxavpok.mods.decraft.common.config;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.jglrxavpok.mods.decraft.ModUncrafting;
 import org.jglrxavpok.mods.decraft.client.config.ModGuiConfigEntries;
 import org.jglrxavpok.mods.decraft.common.network.message.ConfigSyncMessage;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingManager;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.common.config.Property;
 import net.minecraftforge.fml.client.config.GuiConfigEntries.NumberSliderEntry;
@@ -30,11 +36,18 @@ public class ModConfiguration
 		private static final int enchantmentCost = 1;
 		private static final int uncraftMethod = 0;
 		private static final String[] excludedItems = new String[] { };
+		private static final boolean precomputeGrids = false;
+		private static final int metricsLogInterval = 0;
 
 		private static final boolean useNuggets = true;
 		private static final boolean registerNuggets = true;
 		private static final boolean useRabbitHide = false;
 		private static final boolean ensureReturn = true;
+
+		private static final boolean automationUsesExperience = true;
+		private static final int automationExperienceCapacity = 30;
+		private static final int automationOperationsPerTick = 1;
+		private static final int automationTickBudget = 2000;
 	}
 
 	private static Configuration config = null;
@@ -42,6 +55,7 @@ public class ModConfiguration
 
 	public static final String CATEGORY_GENERAL = Configuration.CATEGORY_GENERAL;
 	public static final String CATEGORY_NUGGETS = "nuggets";
+	public static final String CATEGORY_AUTOMATION = "automation";
 
 
 	public static int standardLevel = DefaultValues.standardLevel;
@@ -49,12 +63,23 @@ public class ModConfiguration
 	public static int enchantmentCost = DefaultValues.enchantmentCost;
 	public static int uncraftMethod = DefaultValues.uncraftMethod;
 	public static String[] excludedItems = DefaultValues.excludedItems;
+	public static boolean precomputeGrids = DefaultValues.precomputeGrids;
+	public static int metricsLogInterval = DefaultValues.metricsLogInterval;
 
 	public static boolean useNuggets = DefaultValues.useNuggets;
 	public static boolean registerNuggets = DefaultValues.registerNuggets;
 	public static boolean useRabbitHide = DefaultValues.useRabbitHide;
 	public static boolean ensureReturn = DefaultValues.ensureReturn;
 
+	public static boolean automationUsesExperience = DefaultValues.automationUsesExperience;
+	public static int automationExperienceCapacity = DefaultValues.automationExperienceCapacity;
+	public static int automationOperationsPerTick = DefaultValues.automationOperationsPerTick;
+	public static int automationTickBudget = DefaultValues.automationTickBudget;
+
+	// the excluded items resolved into registry names and metadata values, so that they can be checked without building strings
+	private static volatile Map<ResourceLocation, ExcludedItem> excludedItemLookup = new HashMap<ResourceLocation, ExcludedItem>();
+	private static volatile long excludedItemsHash = getHash(DefaultValues.excludedItems);
+
 
 	public static Configuration getConfig()
 	{
@@ -109,6 +134,14 @@ public class ModConfiguration
 		propExcludedItems.setLanguageKey("uncrafting.options.excludedItems");
 		propExcludedItems.setRequiresMcRestart(false);
 
+		Property propPrecomputeGrids = config.get(CATEGORY_GENERAL, "precomputeGrids", DefaultValues.precomputeGrids, "Resolve the uncrafting grids for all recipes at startup");
+		propPrecomputeGrids.setLanguageKey("uncrafting.options.precomputeGrids");
+		propPrecomputeGrids.setRequiresMcRestart(true);
+
+		Property propMetricsLogInterval = config.get(CATEGORY_GENERAL, "metricsLogInterval", DefaultValues.metricsLogInterval, "Minutes between writing uncrafting performance metrics to the log (0 to disable)", 0, 1440);
+		propMetricsLogInterval.setLanguageKey("uncrafting.options.metricsLogInterval");
+		propMetricsLogInterval.setRequiresMcRestart(false);
+
 
 		Property propUseNuggets = config.get(CATEGORY_NUGGETS, "useNuggets", DefaultValues.useNuggets, "Use available nuggets for partial returns of damaged items");
 		propUseNuggets.setLanguageKey("uncrafting.options.nuggets.useNuggets");
@@ -127,12 +160,31 @@ public class ModConfiguration
 		propEnsureReturn.setRequiresMcRestart(false);
 
 
+		Property propAutomationUsesExperience = config.get(CATEGORY_AUTOMATION, "usesExperience", DefaultValues.automationUsesExperience, "Automatic uncrafting tables use experience levels stored in the table (if disabled, automatic uncrafting is free)");
+		propAutomationUsesExperience.setLanguageKey("uncrafting.options.automation.usesExperience");
+		propAutomationUsesExperience.setRequiresMcRestart(false);
+
+		Property propAutomationExperienceCapacity = config.get(CATEGORY_AUTOMATION, "experienceCapacity", DefaultValues.automationExperienceCapacity, "Maximum number of experience levels an automatic uncrafting table can store", 1, 1000);
+		propAutomationExperienceCapacity.setLanguageKey("uncrafting.options.automation.experienceCapacity");
+		propAutomationExperienceCapacity.setRequiresMcRestart(false);
+
+		Property propAutomationOperationsPerTick = config.get(CATEGORY_AUTOMATION, "operationsPerTick", DefaultValues.automationOperationsPerTick, "Maximum number of times an automatic uncrafting table uncrafts a recipe each tick", 1, 64);
+		propAutomationOperationsPerTick.setLanguageKey("uncrafting.options.automation.operationsPerTick");
+		propAutomationOperationsPerTick.setRequiresMcRestart(false);
+
+		Property propAutomationTickBudget = config.get(CATEGORY_AUTOMATION, "tickBudget", DefaultValues.automationTickBudget, "Microseconds of each server tick which all automatic uncrafting tables can use between them", 100, 50000);
+		propAutomationTickBudget.setLanguageKey("uncrafting.options.automation.tickBudget");
+		propAutomationTickBudget.setRequiresMcRestart(false);
+
+
 		List<String> propOrderGeneral = new ArrayList<String>();
 		propOrderGeneral.add(propStandardLevel.getName());
 		propOrderGeneral.add(propMaxLevel.getName());
 		propOrderGeneral.add(propEnchantmentCost.getName());
 		propOrderGeneral.add(propUncraftMethod.getName());
 		propOrderGeneral.add(propExcludedItems.getName());
+		propOrderGeneral.add(propPrecomputeGrids.getName());
+		propOrderGeneral.add(propMetricsLogInterval.getName());
 		config.setCategoryPropertyOrder(CATEGORY_GENERAL, propOrderGeneral);
 
 		List<String> propOrderNuggets = new ArrayList<String>();
@@ -142,6 +194,13 @@ public class ModConfiguration
 		propOrderNuggets.add(propEnsureReturn.getName());
 		config.setCategoryPropertyOrder(CATEGORY_NUGGETS, propOrderNuggets);
 
+		List<String> propOrderAutomation = new ArrayList<String>();
+		propOrderAutomation.add(propAutomationUsesExperience.getName());
+		propOrderAutomation.add(propAutomationExperienceCapacity.getName());
+		propOrderAutomation.add(propAutomationOperationsPerTick.getName());
+		propOrderAutomation.add(propAutomationTickBudget.getName());
+		config.setCategoryPropertyOrder(CATEGORY_AUTOMATION, propOrderAutomation);
+
 
 		try
 		{
@@ -150,11 +209,14 @@ public class ModConfiguration
 			propEnchantmentCost.setConfigEntryClass(NumberSliderEntry.class);
 			propUncraftMethod.setConfigEntryClass(ModGuiConfigEntries.UncraftingMethodCycleEntry.class);
 			propExcludedItems.setConfigEntryClass(ModGuiConfigEntries.ExcludedItemsArrayEntry.class);
+			propPrecomputeGrids.setConfigEntryClass(ModGuiConfigEntries.BooleanEntry.class);
 
 			propUseNuggets.setConfigEntryClass(ModGuiConfigEntries.BooleanEntry.class);
 			propRegisterNuggets.setConfigEntryClass(ModGuiConfigEntries.BooleanEntry.class);
 			propUseRabbitHide.setConfigEntryClass(ModGuiConfigEntries.BooleanEntry.class);
 			propEnsureReturn.setConfigEntryClass(ModGuiConfigEntries.BooleanEntry.class);
+
+			propAutomationUsesExperience.setConfigEntryClass(ModGuiConfigEntries.BooleanEntry.class);
 		}
 		catch(NoClassDefFoundError e) { }
 
@@ -166,11 +228,18 @@ public class ModConfiguration
 			enchantmentCost = propEnchantmentCost.getInt();
 			uncraftMethod = propUncraftMethod.getInt();
 			excludedItems = propExcludedItems.getStringList();
+			precomputeGrids = propPrecomputeGrids.getBoolean();
+			metricsLogInterval = propMetricsLogInterval.getInt();
 
 			useNuggets = propUseNuggets.getBoolean();
 			registerNuggets = propRegisterNuggets.getBoolean();
 			useRabbitHide = propUseRabbitHide.getBoolean();
 			ensureReturn = propEnsureReturn.getBoolean();
+
+			automationUsesExperience = propAutomationUsesExperience.getBoolean();
+			automationExperienceCapacity = propAutomationExperienceCapacity.getInt();
+			automationOperationsPerTick = propAutomationOperationsPerTick.getInt();
+			automationTickBudget = propAutomationTickBudget.getInt();
 		}
 
 
@@ -179,16 +248,135 @@ public class ModConfiguration
 		propEnchantmentCost.set(enchantmentCost);
 		propUncraftMethod.set(uncraftMethod);
 		propExcludedItems.set(excludedItems);
+		propPrecomputeGrids.set(precomputeGrids);
+		propMetricsLogInterval.set(metricsLogInterval);
 
 		propUseNuggets.set(useNuggets);
 		propRegisterNuggets.set(registerNuggets);
 		propUseRabbitHide.set(useRabbitHide);
 		propEnsureReturn.set(ensureReturn);
 
+		propAutomationUsesExperience.set(automationUsesExperience);
+		propAutomationExperienceCapacity.set(automationExperienceCapacity);
+		propAutomationOperationsPerTick.set(automationOperationsPerTick);
+		propAutomationTickBudget.set(automationTickBudget);
+
 
 		if (config.hasChanged()) config.save();
+
+		updateExcludedItems();
+
+		// the changed settings may affect the results of previous uncrafting lookups
+		UncraftingManager.invalidateResultCache();
+	}
+
+
+
+	/**
+	 * Rebuilds the lookup used by isItemExcluded from the current contents of excludedItems.
+	 * Must be called whenever excludedItems is changed.
+	 */
+	public static void updateExcludedItems()
+	{
+		Map<ResourceLocation, ExcludedItem> lookup = new HashMap<ResourceLocation, ExcludedItem>();
+		for ( String excludedItem : excludedItems )
+		{
+			// entries are either a registry name (e.g. "minecraft:stone") or a registry name and metadata value (e.g. "minecraft:stone,1")
+			String registryName = excludedItem;
+			int metadata = -1;
+
+			int separatorIndex = excludedItem.lastIndexOf(',');
+			if (separatorIndex >= 0)
+			{
+				registryName = excludedItem.substring(0, separatorIndex);
+				try
+				{
+					metadata = Integer.parseInt(excludedItem.substring(separatorIndex + 1));
+				}
+				catch(NumberFormatException ex) { continue; }
+
+				// only accept the metadata value in the same form as Integer.toString, as that's the only form which has ever matched
+				if (!Integer.toString(metadata).equals(excludedItem.substring(separatorIndex + 1))) continue;
+			}
+
+			// ignore entries which aren't valid registry names, or aren't written in the same form the registry name would be
+			if (registryName.isEmpty() || registryName.indexOf(',') >= 0) continue;
+			ResourceLocation resourceLocation = new ResourceLocation(registryName);
+			if (!resourceLocation.toString().equals(registryName)) continue;
+
+			ExcludedItem entry = lookup.get(resourceLocation);
+			if (entry == null)
+			{
+				entry = new ExcludedItem();
+				lookup.put(resourceLocation, entry);
+			}
+			if (separatorIndex >= 0) entry.addMetadata(metadata);
+			else entry.allMetadata = true;
+		}
+		excludedItemLookup = lookup;
+		excludedItemsHash = getHash(excludedItems);
+	}
+
+	/**
+	 * Returns a hash of the contents of excludedItems, used to check whether a client already has the same list as the server.
+	 */
+	public static long getExcludedItemsHash()
+	{
+		return excludedItemsHash;
+	}
+
+	private static long getHash(String[] values)
+	{
+		// 64 bit FNV-1a over the characters of each entry, with a separator between entries
+		long hash = 0xcbf29ce484222325L;
+		for ( String value : values )
+		{
+			for ( int i = 0 ; i < value.length() ; i++ )
+			{
+				hash ^= value.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+			hash ^= 0xFFFF;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
 	}
 
+	/**
+	 * Returns true if the item in the given stack has been excluded from uncrafting, either entirely or for the stack's metadata value.
+	 */
+	public static boolean isItemExcluded(ItemStack stack)
+	{
+		ResourceLocation registryName = stack.getItem().getRegistryName();
+		if (registryName == null) return false;
+
+		ExcludedItem entry = excludedItemLookup.get(registryName);
+		return (entry != null && (entry.allMetadata || entry.hasMetadata(stack.getItemDamage())));
+	}
+
+
+	/**
+	 * The entries in excludedItems for a single item
+	 *
+	 */
+	private static class ExcludedItem
+	{
+		private boolean allMetadata = false;
+		private int[] metadata = new int[0];
+
+		private void addMetadata(int value)
+		{
+			if (hasMetadata(value)) return;
+			this.metadata = Arrays.copyOf(this.metadata, this.metadata.length + 1);
+			this.metadata[this.metadata.length - 1] = value;
+			Arrays.sort(this.metadata);
+		}
+
+		private boolean hasMetadata(int value)
+		{
+			return (Arrays.binarySearch(this.metadata, value) >= 0);
+		}
+	}
 
 
 	@EventBusSubscriber
@@ -215,7 +403,7 @@ public class ModConfiguration
 					syncFromGUI();
 					if (event.isWorldRunning() && Minecraft.getMinecraft().isSingleplayer())
 					{
-						ModUncrafting.NETWORK.sendToServer(new ConfigSyncMessage());
+						ModUncrafting.NETWORK.sendToServer(new ConfigSyncMessage(true));
 					}
 				}
 			}
@@ -0,0 +1,72 @@
+package org.jglrxavpok.mods.decraft.common.network.message;
+
+import org.jglrxavpok.mods.decraft.inventory.ContainerUncraftingTable;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.inventory.Container;
+import net.minecraft.util.IThreadListener;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+
+/**
+ * Sent by the client to uncraft the whole input stack, and optionally every matching stack in the player's inventory.
+ *
+ */
+public class BulkUncraftMessage implements IMessage
+{
+
+	private boolean includeInventory;
+
+
+	public BulkUncraftMessage()
+	{
+	}
+
+	public BulkUncraftMessage(boolean includeInventory)
+	{
+		this.includeInventory = includeInventory;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf)
+	{
+		this.includeInventory = buf.readBoolean();
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf)
+	{
+		buf.writeBoolean(this.includeInventory);
+	}
+
+
+	public static final class MessageHandler implements IMessageHandler<BulkUncraftMessage, IMessage>
+	{
+
+		@Override
+		public IMessage onMessage(final BulkUncraftMessage message, MessageContext ctx)
+		{
+			final EntityPlayerMP player = ctx.getServerHandler().player;
+
+			IThreadListener threadListener = (WorldServer)player.world;
+			threadListener.addScheduledTask(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					Container container = player.openContainer;
+					if (container instanceof ContainerUncraftingTable)
+					{
+						((ContainerUncraftingTable)container).bulkUncraft(message.includeInventory);
+					}
+				}
+			});
+
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+package org.jglrxavpok.mods.decraft.common.network.message;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.jglrxavpok.mods.decraft.ModUncrafting;
+import org.jglrxavpok.mods.decraft.common.config.ModConfiguration;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.IThreadListener;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+
+/**
+ * Sent by a client when the excluded items hash in a ConfigSyncMessage doesn't match its own list,
+ * to ask the server for a ConfigSyncMessage containing the full list.
+ * The client's own hash is included, so that the server only sends the list if the two really are different.
+ *
+ */
+public class ConfigRequestMessage implements IMessage
+{
+
+	private long excludedItemsHash;
+
+
+	public ConfigRequestMessage()
+	{
+	}
+
+	/**
+	 * @param excludedItemsHash The hash of the client's own excluded items list
+	 */
+	public ConfigRequestMessage(long excludedItemsHash)
+	{
+		this.excludedItemsHash = excludedItemsHash;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf)
+	{
+		this.excludedItemsHash = buf.readLong();
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf)
+	{
+		buf.writeLong(this.excludedItemsHash);
+	}
+
+
+	/**
+	 * Forgets which excluded items list each player has been sent. Called when the server stops.
+	 */
+	public static void clearSentLists()
+	{
+		MessageHandler.SENT_HASHES.clear();
+	}
+
+
+	public static final class MessageHandler implements IMessageHandler<ConfigRequestMessage, IMessage>
+	{
+
+		// the hash of the excluded items list each player was last sent, so that each version of the list is only sent to a player once
+		// (only accessed from the server thread)
+		private static final Map<UUID, Long> SENT_HASHES = new HashMap<UUID, Long>();
+
+
+		@Override
+		public IMessage onMessage(final ConfigRequestMessage message, MessageContext ctx)
+		{
+			final EntityPlayerMP player = ctx.getServerHandler().player;
+
+			IThreadListener threadListener = (WorldServer)player.world;
+			threadListener.addScheduledTask(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					// only send the list if the client's is actually different, and the player hasn't already been sent this version of it
+					long excludedItemsHash = ModConfiguration.getExcludedItemsHash();
+					if (message.excludedItemsHash == excludedItemsHash) return;
+
+					Long sentHash = SENT_HASHES.put(player.getUniqueID(), excludedItemsHash);
+					if (sentHash != null && sentHash == excludedItemsHash) return;
+
+					// the reply is sent back to the player who sent the request
+					ModUncrafting.NETWORK.sendTo(new ConfigSyncMessage(true), player);
+				}
+			});
+
+			return null;
+		}
+
+	}
+
+
+	@EventBusSubscriber
+	public static class RequestEventHandler
+	{
+
+		@SubscribeEvent
+		public static void onPlayerLoggedOut(PlayerLoggedOutEvent event)
+		{
+			if (!event.player.world.isRemote)
+			{
+				MessageHandler.SENT_HASHES.remove(event.player.getUniqueID());
+			}
+		}
+
+	}
+
+}
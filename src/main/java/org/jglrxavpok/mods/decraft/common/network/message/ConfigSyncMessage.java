@@ -2,9 +2,12 @@ package org.jglrxavpok.mods.decraft.common.network.message;
 
 import org.jglrxavpok.mods.decraft.ModUncrafting;
 import org.jglrxavpok.mods.decraft.common.config.ModConfiguration;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingManager;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
+import net.minecraft.item.Item;
 import net.minecraft.util.IThreadListener;
+import net.minecraft.util.ResourceLocation;
 import net.minecraft.world.WorldServer;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
@@ -16,21 +19,42 @@ import net.minecraftforge.fml.relauncher.Side;
 public class ConfigSyncMessage implements IMessage
 {
 
+	// flags used to pack the boolean settings into a single byte
+	private static final int FLAG_USE_NUGGETS = 1;
+	private static final int FLAG_REGISTER_NUGGETS = 2;
+	private static final int FLAG_USE_RABBIT_HIDE = 4;
+	private static final int FLAG_ENSURE_RETURN = 8;
+	private static final int FLAG_EXCLUDED_ITEMS = 16;
+
 	private int standardLevel = ModConfiguration.standardLevel;
 	private int maxUsedLevel = ModConfiguration.maxUsedLevel;
 	private int enchantmentCost = ModConfiguration.enchantmentCost;
 	private int uncraftMethod = ModConfiguration.uncraftMethod;
-	private String[] excludedItems = ModConfiguration.excludedItems;
+	private long excludedItemsHash = ModConfiguration.getExcludedItemsHash();
+	private String[] excludedItems = null;
 	private boolean useNuggets = ModConfiguration.useNuggets;
 	private boolean registerNuggets = ModConfiguration.registerNuggets;
 	private boolean useRabbitHide = ModConfiguration.useRabbitHide;
 	private boolean ensureReturn = ModConfiguration.ensureReturn;
 
 
+	/**
+	 * Creates a message containing the current settings, and the hash of the excluded items list rather than the list itself.
+	 * The receiver will send a ConfigRequestMessage if its own list doesn't match the hash.
+	 */
 	public ConfigSyncMessage()
 	{
 	}
 
+	/**
+	 * Creates a message containing the current settings.
+	 * @param includeExcludedItems Whether to include the full excluded items list
+	 */
+	public ConfigSyncMessage(boolean includeExcludedItems)
+	{
+		if (includeExcludedItems) this.excludedItems = ModConfiguration.excludedItems;
+	}
+
 	@Override
 	public void fromBytes(ByteBuf buf)
 	{
@@ -38,11 +62,19 @@ public class ConfigSyncMessage implements IMessage
 		maxUsedLevel = ByteBufUtils.readVarShort(buf);
 		enchantmentCost = ByteBufUtils.readVarShort(buf);
 		uncraftMethod = ByteBufUtils.readVarShort(buf);
-		excludedItems = ByteBufUtils.readUTF8String(buf).split("\\|");
-		useNuggets = (ByteBufUtils.readVarShort(buf) == 1);
-		registerNuggets = (ByteBufUtils.readVarShort(buf) == 1);
-		useRabbitHide = (ByteBufUtils.readVarShort(buf) == 1);
-		ensureReturn = (ByteBufUtils.readVarShort(buf) == 1);
+
+		int flags = buf.readUnsignedByte();
+		useNuggets = ((flags & FLAG_USE_NUGGETS) != 0);
+		registerNuggets = ((flags & FLAG_REGISTER_NUGGETS) != 0);
+		useRabbitHide = ((flags & FLAG_USE_RABBIT_HIDE) != 0);
+		ensureReturn = ((flags & FLAG_ENSURE_RETURN) != 0);
+
+		excludedItemsHash = buf.readLong();
+		if ((flags & FLAG_EXCLUDED_ITEMS) != 0)
+		{
+			excludedItems = new String[ByteBufUtils.readVarInt(buf, 5)];
+			for ( int i = 0 ; i < excludedItems.length ; i++ ) excludedItems[i] = readExcludedItem(buf);
+		}
 	}
 
 	@Override
@@ -52,11 +84,74 @@ public class ConfigSyncMessage implements IMessage
 		ByteBufUtils.writeVarShort(buf, maxUsedLevel);
 		ByteBufUtils.writeVarShort(buf, enchantmentCost);
 		ByteBufUtils.writeVarShort(buf, uncraftMethod);
-		ByteBufUtils.writeUTF8String(buf, String.join("|", excludedItems));
-		ByteBufUtils.writeVarShort(buf, (useNuggets ? 1 : 0));
-		ByteBufUtils.writeVarShort(buf, (registerNuggets ? 1 : 0));
-		ByteBufUtils.writeVarShort(buf, (useRabbitHide ? 1 : 0));
-		ByteBufUtils.writeVarShort(buf, (ensureReturn ? 1 : 0));
+
+		int flags = 0;
+		if (useNuggets) flags |= FLAG_USE_NUGGETS;
+		if (registerNuggets) flags |= FLAG_REGISTER_NUGGETS;
+		if (useRabbitHide) flags |= FLAG_USE_RABBIT_HIDE;
+		if (ensureReturn) flags |= FLAG_ENSURE_RETURN;
+		if (excludedItems != null) flags |= FLAG_EXCLUDED_ITEMS;
+		buf.writeByte(flags);
+
+		buf.writeLong(excludedItemsHash);
+		if (excludedItems != null)
+		{
+			ByteBufUtils.writeVarInt(buf, excludedItems.length, 5);
+			for ( String excludedItem : excludedItems ) writeExcludedItem(buf, excludedItem);
+		}
+	}
+
+
+	/**
+	 * Writes an entry from the excluded items list. Entries for registered items are written as the numeric item id and metadata value,
+	 * and anything else is written as a string, so that the entry is read back exactly as it was written.
+	 */
+	private static void writeExcludedItem(ByteBuf buf, String excludedItem)
+	{
+		String registryName = excludedItem;
+		int metadata = -1;
+
+		int separatorIndex = excludedItem.lastIndexOf(',');
+		if (separatorIndex >= 0)
+		{
+			registryName = excludedItem.substring(0, separatorIndex);
+			try
+			{
+				metadata = Integer.parseInt(excludedItem.substring(separatorIndex + 1));
+				if (!Integer.toString(metadata).equals(excludedItem.substring(separatorIndex + 1))) metadata = -1;
+			}
+			catch(NumberFormatException ex) { metadata = -1; }
+		}
+
+		// the numeric form can only be used if the entry will be rebuilt as exactly the same string
+		Item item = null;
+		if ((separatorIndex < 0 || metadata >= 0) && !registryName.isEmpty())
+		{
+			ResourceLocation resourceLocation = new ResourceLocation(registryName);
+			if (resourceLocation.toString().equals(registryName) && Item.REGISTRY.containsKey(resourceLocation)) item = Item.REGISTRY.getObject(resourceLocation);
+		}
+
+		if (item != null)
+		{
+			// item ids are written offset by one, so that zero can mark an entry written as a string
+			ByteBufUtils.writeVarInt(buf, Item.getIdFromItem(item) + 1, 5);
+			ByteBufUtils.writeVarInt(buf, (separatorIndex >= 0 ? metadata + 1 : 0), 5);
+		}
+		else
+		{
+			ByteBufUtils.writeVarInt(buf, 0, 5);
+			ByteBufUtils.writeUTF8String(buf, excludedItem);
+		}
+	}
+
+	private static String readExcludedItem(ByteBuf buf)
+	{
+		int itemId = ByteBufUtils.readVarInt(buf, 5);
+		if (itemId == 0) return ByteBufUtils.readUTF8String(buf);
+
+		int metadata = ByteBufUtils.readVarInt(buf, 5);
+		String registryName = String.valueOf(Item.REGISTRY.getNameForObject(Item.getItemById(itemId - 1)));
+		return (metadata > 0 ? registryName + "," + Integer.toString(metadata - 1) : registryName);
 	}
 
 
@@ -79,7 +174,7 @@ public class ConfigSyncMessage implements IMessage
 		}
 
 		@Override
-		public IMessage onMessage(final ConfigSyncMessage message, MessageContext ctx)
+		public IMessage onMessage(final ConfigSyncMessage message, final MessageContext ctx)
 		{
 			IThreadListener threadListener = getThreadListener(ctx);
 			threadListener.addScheduledTask(new Runnable()
@@ -91,11 +186,24 @@ public class ConfigSyncMessage implements IMessage
 					ModConfiguration.standardLevel = message.standardLevel;
 					ModConfiguration.enchantmentCost = message.enchantmentCost;
 					ModConfiguration.uncraftMethod = message.uncraftMethod;
-					ModConfiguration.excludedItems = message.excludedItems;
 					ModConfiguration.useNuggets = message.useNuggets;
 					ModConfiguration.registerNuggets = message.registerNuggets;
 					ModConfiguration.useRabbitHide = message.useRabbitHide;
 					ModConfiguration.ensureReturn = message.ensureReturn;
+
+					// if the message contains the excluded items list, use it
+					if (message.excludedItems != null)
+					{
+						ModConfiguration.excludedItems = message.excludedItems;
+						ModConfiguration.updateExcludedItems();
+					}
+					// otherwise if the client's own list is different, ask the server for its list
+					else if (ctx.side == Side.CLIENT && message.excludedItemsHash != ModConfiguration.getExcludedItemsHash())
+					{
+						ModUncrafting.NETWORK.sendToServer(new ConfigRequestMessage(ModConfiguration.getExcludedItemsHash()));
+					}
+
+					UncraftingManager.invalidateResultCache();
 				}
 			});
 
@@ -1,11 +1,20 @@
 package org.jglrxavpok.mods.decraft.common.network.message;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 import org.jglrxavpok.mods.decraft.inventory.ContainerUncraftingTable;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult.ResultType;
+import org.jglrxavpok.mods.decraft.stats.UncraftingMetrics;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.inventory.Container;
 import net.minecraft.util.IThreadListener;
 import net.minecraft.world.WorldServer;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
@@ -40,13 +49,51 @@ public class RecipeNavigationMessage implements IMessage
 	}
 
 
+	/**
+	 * Forgets any recipe changes which haven't been applied yet, and each player's navigation rate. Called when the server stops.
+	 */
+	public static void clearPendingNavigations()
+	{
+		synchronized (MessageHandler.PENDING_NAVIGATIONS)
+		{
+			MessageHandler.PENDING_NAVIGATIONS.clear();
+		}
+		MessageHandler.NAVIGATION_WINDOWS.clear();
+	}
+
+
 	public static final class MessageHandler implements IMessageHandler<RecipeNavigationMessage, IMessage>
 	{
 
+		// the number of recipe changes a player can make in a second, which is far more than anyone can manage by clicking the buttons
+		private static final int MAX_NAVIGATIONS_PER_SECOND = 10;
+
+		// the latest recipe index received from each player which hasn't been applied yet, and the number of messages it replaces
+		private static final Map<UUID, int[]> PENDING_NAVIGATIONS = new HashMap<UUID, int[]>();
+
+		// the world time at which each player's current one second window started, and the number of recipe changes made in it
+		// (only accessed from the server thread)
+		private static final Map<UUID, long[]> NAVIGATION_WINDOWS = new HashMap<UUID, long[]>();
+
+
 		@Override
 		public IMessage onMessage(final RecipeNavigationMessage message, MessageContext ctx)
 		{
 			final EntityPlayerMP player = ctx.getServerHandler().player;
+			final UUID playerId = player.getUniqueID();
+
+			// if a task is already waiting to apply a recipe change for this player, replace its recipe index rather than scheduling another
+			synchronized (PENDING_NAVIGATIONS)
+			{
+				int[] pending = PENDING_NAVIGATIONS.get(playerId);
+				if (pending != null)
+				{
+					pending[0] = message.recipeIndex;
+					pending[1]++;
+					return null;
+				}
+				PENDING_NAVIGATIONS.put(playerId, new int[] { message.recipeIndex, 1 });
+			}
 
 			IThreadListener threadListener = (WorldServer)player.world;
 			threadListener.addScheduledTask(new Runnable()
@@ -54,19 +101,89 @@ public class RecipeNavigationMessage implements IMessage
 				@Override
 				public void run()
 				{
-					Container container = player.openContainer;
-					if (container instanceof ContainerUncraftingTable)
+					int[] pending;
+					synchronized (PENDING_NAVIGATIONS)
 					{
-						ContainerUncraftingTable uncraftingContainer = (ContainerUncraftingTable)container;
-						uncraftingContainer.uncraftingResult.selectedCraftingGrid = message.recipeIndex;
-						uncraftingContainer.switchRecipe();
+						pending = PENDING_NAVIGATIONS.remove(playerId);
 					}
+					if (pending == null) return;
+
+					UncraftingMetrics.increment(UncraftingMetrics.NAVIGATIONS_COALESCED, pending[1] - 1);
+					applyNavigation(player, pending[0]);
 				}
 			});
 
 			return null;
 		}
+
+
+		private static void applyNavigation(EntityPlayerMP player, int recipeIndex)
+		{
+			Container container = player.openContainer;
+			if (!(container instanceof ContainerUncraftingTable)) return;
+
+			ContainerUncraftingTable uncraftingContainer = (ContainerUncraftingTable)container;
+
+			// handle any changes to the input slots first, so that the index is checked against the result for the current input
+			uncraftingContainer.resolveChanges();
+			UncraftingResult uncraftingResult = uncraftingContainer.uncraftingResult;
+
+			// ignore indexes which don't refer to one of the current recipes, and changes after the item has been uncrafted
+			if (recipeIndex < 0 || recipeIndex >= uncraftingResult.getRecipeCount() || uncraftingResult.resultType == ResultType.UNCRAFTED)
+			{
+				UncraftingMetrics.increment(UncraftingMetrics.NAVIGATIONS_INVALID, 1);
+				return;
+			}
+
+			// nothing needs doing if the recipe is already selected
+			if (recipeIndex == uncraftingResult.selectedCraftingGrid) return;
+
+			if (!tryAcquire(player))
+			{
+				UncraftingMetrics.increment(UncraftingMetrics.NAVIGATIONS_THROTTLED, 1);
+				return;
+			}
+
+			UncraftingMetrics.increment(UncraftingMetrics.NAVIGATIONS, 1);
+			uncraftingResult.selectedCraftingGrid = recipeIndex;
+			uncraftingContainer.switchRecipe();
+		}
+
+		/**
+		 * Returns true if the player hasn't used up their recipe changes for the current second, and counts this one against them.
+		 */
+		private static boolean tryAcquire(EntityPlayerMP player)
+		{
+			long worldTime = player.world.getTotalWorldTime();
+
+			long[] window = NAVIGATION_WINDOWS.get(player.getUniqueID());
+			if (window == null || worldTime - window[0] >= 20 || worldTime < window[0])
+			{
+				NAVIGATION_WINDOWS.put(player.getUniqueID(), new long[] { worldTime, 1 });
+				return true;
+			}
+
+			if (window[1] >= MAX_NAVIGATIONS_PER_SECOND) return false;
+			window[1]++;
+			return true;
+		}
+
 	}
 
-}
 
+	@EventBusSubscriber
+	public static class NavigationEventHandler
+	{
+
+		@SubscribeEvent
+		public static void onPlayerLoggedOut(PlayerLoggedOutEvent event)
+		{
+			if (!event.player.world.isRemote)
+			{
+				MessageHandler.NAVIGATION_WINDOWS.remove(event.player.getUniqueID());
+			}
+		}
+
+	}
+
+}
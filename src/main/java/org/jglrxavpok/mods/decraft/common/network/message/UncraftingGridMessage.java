@@ -0,0 +1,119 @@
+package org.jglrxavpok.mods.decraft.common.network.message;
+
+import org.jglrxavpok.mods.decraft.inventory.ContainerUncraftingTable;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.inventory.Container;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+
+/**
+ * Sent by the server when the contents of the output grid of an open uncrafting table change,
+ * replacing the individual slot updates which would otherwise be sent for each slot in the grid.
+ * Both the recipe items and the container items are sent, with a bitmask of the slots which have items in each so that empty slots take no space.
+ *
+ */
+public class UncraftingGridMessage implements IMessage
+{
+
+	private int windowId;
+	private ItemStack[] recipeItems;
+	private ItemStack[] containerItems;
+
+
+	public UncraftingGridMessage()
+	{
+	}
+
+	/**
+	 * @param windowId The window id of the container
+	 * @param recipeItems Copies of the recipe items in the grid
+	 * @param containerItems Copies of the container items in the grid
+	 */
+	public UncraftingGridMessage(int windowId, ItemStack[] recipeItems, ItemStack[] containerItems)
+	{
+		this.windowId = windowId;
+		this.recipeItems = recipeItems;
+		this.containerItems = containerItems;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf)
+	{
+		this.windowId = buf.readUnsignedByte();
+
+		int size = buf.readUnsignedByte();
+		this.recipeItems = readStacks(buf, size);
+		this.containerItems = readStacks(buf, size);
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf)
+	{
+		buf.writeByte(this.windowId);
+
+		buf.writeByte(this.recipeItems.length);
+		writeStacks(buf, this.recipeItems);
+		writeStacks(buf, this.containerItems);
+	}
+
+
+	private static ItemStack[] readStacks(ByteBuf buf, int size)
+	{
+		ItemStack[] stacks = new ItemStack[size];
+		int mask = ByteBufUtils.readVarInt(buf, 5);
+		for ( int i = 0 ; i < size ; i++ )
+		{
+			stacks[i] = ((mask & (1 << i)) != 0 ? ByteBufUtils.readItemStack(buf) : ItemStack.EMPTY);
+		}
+		return stacks;
+	}
+
+	private static void writeStacks(ByteBuf buf, ItemStack[] stacks)
+	{
+		int mask = 0;
+		for ( int i = 0 ; i < stacks.length ; i++ )
+		{
+			if (!stacks[i].isEmpty()) mask |= (1 << i);
+		}
+		ByteBufUtils.writeVarInt(buf, mask, 5);
+
+		for ( ItemStack stack : stacks )
+		{
+			if (!stack.isEmpty()) ByteBufUtils.writeItemStack(buf, stack);
+		}
+	}
+
+
+	public static final class MessageHandler implements IMessageHandler<UncraftingGridMessage, IMessage>
+	{
+
+		@Override
+		public IMessage onMessage(final UncraftingGridMessage message, MessageContext ctx)
+		{
+			Minecraft.getMinecraft().addScheduledTask(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					EntityPlayer player = Minecraft.getMinecraft().player;
+					Container container = (player != null ? player.openContainer : null);
+
+					// ignore grids for a table the player has since closed
+					if (container instanceof ContainerUncraftingTable && container.windowId == message.windowId)
+					{
+						((ContainerUncraftingTable)container).setOutputGrid(message.recipeItems, message.containerItems);
+					}
+				}
+			});
+
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+package org.jglrxavpok.mods.decraft.common.network.message;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Map;
+import org.jglrxavpok.mods.decraft.inventory.ContainerUncraftingTable;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult.ResultType;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.inventory.Container;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.NonNullList;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+
+/**
+ * Sent by the server when the uncrafting result for an open uncrafting table is looked up again,
+ * so that the client can display the result without looking up the recipes itself.
+ * Later changes to the same result are sent with an UncraftingResultStateMessage, without the crafting grids.
+ *
+ */
+public class UncraftingResultMessage implements IMessage
+{
+
+	private int windowId;
+	private UncraftingResult uncraftingResult;
+
+
+	public UncraftingResultMessage()
+	{
+	}
+
+	public UncraftingResultMessage(int windowId, UncraftingResult uncraftingResult)
+	{
+		this.windowId = windowId;
+		this.uncraftingResult = uncraftingResult;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf)
+	{
+		this.windowId = buf.readUnsignedByte();
+
+		this.uncraftingResult = new UncraftingResult();
+		this.uncraftingResult.resultType = ResultType.values()[buf.readUnsignedByte()];
+		this.uncraftingResult.experienceCost = ByteBufUtils.readVarInt(buf, 5);
+		this.uncraftingResult.selectedCraftingGrid = ByteBufUtils.readVarShort(buf);
+
+		int recipeCount = ByteBufUtils.readVarShort(buf);
+		this.uncraftingResult.craftingGrids = new ArrayList<Map.Entry<NonNullList<ItemStack>,Integer>>(recipeCount);
+		for ( int i = 0 ; i < recipeCount ; i++ )
+		{
+			int minStackSize = ByteBufUtils.readVarShort(buf);
+			NonNullList<ItemStack> craftingGrid = NonNullList.<ItemStack>withSize(buf.readUnsignedByte(), ItemStack.EMPTY);
+			for ( int j = 0 ; j < craftingGrid.size() ; j++ ) craftingGrid.set(j, ByteBufUtils.readItemStack(buf));
+
+			this.uncraftingResult.craftingGrids.add(new AbstractMap.SimpleEntry<NonNullList<ItemStack>,Integer>(craftingGrid, minStackSize));
+		}
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf)
+	{
+		buf.writeByte(this.windowId);
+
+		buf.writeByte(this.uncraftingResult.resultType.ordinal());
+		ByteBufUtils.writeVarInt(buf, this.uncraftingResult.experienceCost, 5);
+		ByteBufUtils.writeVarShort(buf, this.uncraftingResult.selectedCraftingGrid);
+
+		ByteBufUtils.writeVarShort(buf, this.uncraftingResult.getRecipeCount());
+		for ( Map.Entry<NonNullList<ItemStack>,Integer> entry : this.uncraftingResult.craftingGrids )
+		{
+			ByteBufUtils.writeVarShort(buf, entry.getValue());
+			buf.writeByte(entry.getKey().size());
+			for ( ItemStack stack : entry.getKey() ) ByteBufUtils.writeItemStack(buf, stack);
+		}
+	}
+
+
+	public static final class MessageHandler implements IMessageHandler<UncraftingResultMessage, IMessage>
+	{
+
+		@Override
+		public IMessage onMessage(final UncraftingResultMessage message, MessageContext ctx)
+		{
+			Minecraft.getMinecraft().addScheduledTask(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					EntityPlayer player = Minecraft.getMinecraft().player;
+					Container container = (player != null ? player.openContainer : null);
+
+					// ignore results for a table the player has since closed
+					if (container instanceof ContainerUncraftingTable && container.windowId == message.windowId)
+					{
+						((ContainerUncraftingTable)container).setUncraftingResult(message.uncraftingResult);
+					}
+				}
+			});
+
+			return null;
+		}
+	}
+
+}
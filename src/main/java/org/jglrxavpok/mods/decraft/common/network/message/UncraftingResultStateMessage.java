@@ -0,0 +1,87 @@
+package org.jglrxavpok.mods.decraft.common.network.message;
+
+import org.jglrxavpok.mods.decraft.inventory.ContainerUncraftingTable;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult.ResultType;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.client.Minecraft;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.inventory.Container;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+
+/**
+ * Sent by the server when the result type, experience cost or selected recipe of an open uncrafting table's result changes,
+ * but the crafting grids haven't, so that the client can update the result it already has without the grids being sent again.
+ *
+ */
+public class UncraftingResultStateMessage implements IMessage
+{
+
+	private int windowId;
+	private ResultType resultType;
+	private int experienceCost;
+	private int selectedCraftingGrid;
+
+
+	public UncraftingResultStateMessage()
+	{
+	}
+
+	public UncraftingResultStateMessage(int windowId, UncraftingResult uncraftingResult)
+	{
+		this.windowId = windowId;
+		this.resultType = uncraftingResult.resultType;
+		this.experienceCost = uncraftingResult.experienceCost;
+		this.selectedCraftingGrid = uncraftingResult.selectedCraftingGrid;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf)
+	{
+		this.windowId = buf.readUnsignedByte();
+		this.resultType = ResultType.values()[buf.readUnsignedByte()];
+		this.experienceCost = ByteBufUtils.readVarInt(buf, 5);
+		this.selectedCraftingGrid = ByteBufUtils.readVarShort(buf);
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf)
+	{
+		buf.writeByte(this.windowId);
+		buf.writeByte(this.resultType.ordinal());
+		ByteBufUtils.writeVarInt(buf, this.experienceCost, 5);
+		ByteBufUtils.writeVarShort(buf, this.selectedCraftingGrid);
+	}
+
+
+	public static final class MessageHandler implements IMessageHandler<UncraftingResultStateMessage, IMessage>
+	{
+
+		@Override
+		public IMessage onMessage(final UncraftingResultStateMessage message, MessageContext ctx)
+		{
+			Minecraft.getMinecraft().addScheduledTask(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					EntityPlayer player = Minecraft.getMinecraft().player;
+					Container container = (player != null ? player.openContainer : null);
+
+					// ignore updates for a table the player has since closed
+					if (container instanceof ContainerUncraftingTable && container.windowId == message.windowId)
+					{
+						((ContainerUncraftingTable)container).setUncraftingResultState(message.resultType, message.experienceCost, message.selectedCraftingGrid);
+					}
+				}
+			});
+
+			return null;
+		}
+	}
+
+}
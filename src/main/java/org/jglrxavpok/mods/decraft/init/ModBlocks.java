@@ -1,7 +1,9 @@
 package org.jglrxavpok.mods.decraft.init;
 
 import org.jglrxavpok.mods.decraft.ModUncrafting;
+import org.jglrxavpok.mods.decraft.block.BlockAutomaticUncraftingTable;
 import org.jglrxavpok.mods.decraft.block.BlockUncraftingTable;
+import org.jglrxavpok.mods.decraft.tileentity.TileEntityAutomaticUncraftingTable;
 import net.minecraft.block.Block;
 import net.minecraft.client.renderer.block.model.ModelResourceLocation;
 import net.minecraft.item.Item;
@@ -11,6 +13,7 @@ import net.minecraftforge.client.model.ModelLoader;
 import net.minecraftforge.event.RegistryEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.registry.GameRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -20,29 +23,38 @@ public class ModBlocks
 {
 
 	public static final Block UNCRAFTING_TABLE = new BlockUncraftingTable().setRegistryName("uncrafting_table").setUnlocalizedName("uncrafting_table");
+	public static final Block AUTOMATIC_UNCRAFTING_TABLE = new BlockAutomaticUncraftingTable().setRegistryName("automatic_uncrafting_table").setUnlocalizedName("automatic_uncrafting_table");
 
 
 	@SubscribeEvent
 	public static void registerBlocks(final RegistryEvent.Register<Block> event)
 	{
-		// register the block
+		// register the blocks
 		event.getRegistry().register(UNCRAFTING_TABLE);
+		event.getRegistry().register(AUTOMATIC_UNCRAFTING_TABLE);
+
+		// register the tile entity
+		GameRegistry.registerTileEntity(TileEntityAutomaticUncraftingTable.class, AUTOMATIC_UNCRAFTING_TABLE.getRegistryName().toString());
 	}
 
 	@SubscribeEvent
 	public static void registerItems(final RegistryEvent.Register<Item> event)
 	{
-		// register the itemblock
+		// register the itemblocks
 		event.getRegistry().register(new ItemBlock(UNCRAFTING_TABLE).setRegistryName(UNCRAFTING_TABLE.getRegistryName()));
+		event.getRegistry().register(new ItemBlock(AUTOMATIC_UNCRAFTING_TABLE).setRegistryName(AUTOMATIC_UNCRAFTING_TABLE.getRegistryName()));
 	}
 
 	@SubscribeEvent
 	@SideOnly(Side.CLIENT)
 	public static void registerModels(final ModelRegistryEvent event)
 	{
-		// register the inventory model
+		// register the inventory models
 		Item item = Item.getItemFromBlock(UNCRAFTING_TABLE);
 		ModelLoader.setCustomModelResourceLocation(item, 0, new ModelResourceLocation(UNCRAFTING_TABLE.getRegistryName().toString(), "inventory"));
+
+		item = Item.getItemFromBlock(AUTOMATIC_UNCRAFTING_TABLE);
+		ModelLoader.setCustomModelResourceLocation(item, 0, new ModelResourceLocation(AUTOMATIC_UNCRAFTING_TABLE.getRegistryName().toString(), "inventory"));
 	}
 
 }
\ No newline at end of file
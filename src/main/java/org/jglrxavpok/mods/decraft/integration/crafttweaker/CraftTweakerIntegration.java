@@ -113,6 +113,14 @@ public class CraftTweakerIntegration
 			recipes.add(recipe);
 		}
 
+		@Override
+		public void apply()
+		{
+			super.apply();
+			if (list == UncraftingManager.recipes) UncraftingManager.invalidateRecipeIndex();
+			else UncraftingManager.invalidateBlockLists();
+		}
+
 		@Override
 		public String getRecipeInfo(IRecipe recipe)
 		{
@@ -128,6 +136,13 @@ public class CraftTweakerIntegration
 			recipes.add(stack);
 		}
 
+		@Override
+		public void apply()
+		{
+			super.apply();
+			UncraftingManager.invalidateBlockLists();
+		}
+
 		@Override
 		public String getRecipeInfo(ItemStack stack)
 		{
@@ -5,17 +5,25 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import org.jglrxavpok.mods.decraft.ModUncrafting;
+import org.jglrxavpok.mods.decraft.common.network.message.UncraftingGridMessage;
+import org.jglrxavpok.mods.decraft.common.network.message.UncraftingResultMessage;
+import org.jglrxavpok.mods.decraft.common.network.message.UncraftingResultStateMessage;
 import org.jglrxavpok.mods.decraft.event.ItemUncraftedEvent;
 import org.jglrxavpok.mods.decraft.inventory.InventoryUncraftResult.StackType;
 import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingManager;
 import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult;
 import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult.ResultType;
+import org.jglrxavpok.mods.decraft.stats.UncraftingMetrics;
 import net.minecraft.enchantment.Enchantment;
 import net.minecraft.enchantment.EnchantmentHelper;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.entity.player.InventoryPlayer;
 import net.minecraft.init.Items;
+import net.minecraft.inventory.ClickType;
 import net.minecraft.inventory.Container;
+import net.minecraft.inventory.IContainerListener;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.inventory.InventoryBasic;
 import net.minecraft.inventory.InventoryCrafting;
@@ -37,6 +45,25 @@ public class ContainerUncraftingTable extends Container
 
 	public UncraftingResult uncraftingResult = new UncraftingResult();
 
+	// the uncrafting result last sent to the client, and the values it had when it was sent
+	private UncraftingResult sentResult = null;
+	private ResultType sentResultType = null;
+	private int sentExperienceCost = 0;
+	private int sentSelectedCraftingGrid = 0;
+
+	// copies of the stacks in the output grid when it was last sent to the client (null until it's first sent)
+	private ItemStack[] sentRecipeItems = null;
+	private ItemStack[] sentContainerItems = null;
+
+	// changes to the input slots which haven't been handled yet, so that all the changes made by one action only look up the uncrafting result once
+	private boolean inputItemChanged = false;
+	private boolean inputChanged = false;
+	private boolean bookChanged = false;
+
+	// the player's experience level and game mode when the uncrafting result was last checked against them
+	private int experienceLevel = 0;
+	private boolean isCreativeMode = false;
+
 
 	public ContainerUncraftingTable(InventoryPlayer playerInventory, World world)
 	{
@@ -95,25 +122,40 @@ public class ContainerUncraftingTable extends Container
 				if (
 					uncraftingResult.resultType == ResultType.VALID
 					||
-					(uncraftingResult.resultType == ResultType.NEED_CONTAINER_ITEMS && craftingGrid.get(index).getItem().hasContainerItem(craftingGrid.get(index))) // the hasContainerItem parameter is usually ignored, but some mods (Immersive Engineering) need it to be there
+					(uncraftingResult.resultType == ResultType.NEED_CONTAINER_ITEMS && uncraftingResult.hasContainerItem(index))
 				)
 				{
 
-					// determine how many items we need to place in the inventory slot
-					int amount = craftingGrid.get(index).getCount() * multiplier;
-					if (amount > craftingGrid.get(index).getMaxStackSize()) amount = craftingGrid.get(index).getMaxStackSize();
-
-					// create the new itemstack to place in the uncrafting inventory
-					ItemStack newStack = new ItemStack(craftingGrid.get(index).getItem(), amount, craftingGrid.get(index).getItemDamage());
+					ItemStack recipeStack = craftingGrid.get(index);
 
-					// if the crafting recipe item has NBT data, copy that onto the new itemstack
-					if (craftingGrid.get(index).hasTagCompound())
+					// determine how many items we need to place in the inventory slot
+					int amount = recipeStack.getCount() * multiplier;
+					if (amount > recipeStack.getMaxStackSize()) amount = recipeStack.getMaxStackSize();
+
+					// if the slot already has the same item with the same NBT data, such as when the grid is refreshed after switching recipes
+					// or after the player's experience changes, update it in place rather than creating a new itemstack
+					// (unless it's the recipe item itself, which happens when a container item has replaced the recipe item)
+					ItemStack slotStack = uncraftOut.getStackInSlot(index, StackType.RECIPE);
+					if (!slotStack.isEmpty() && slotStack != recipeStack && slotStack.getItem() == recipeStack.getItem() && ItemStack.areItemStackTagsEqual(slotStack, recipeStack))
 					{
-						newStack.setTagCompound(craftingGrid.get(index).getTagCompound());
+						slotStack.setCount(amount);
+						slotStack.setItemDamage(recipeStack.getItemDamage());
+					}
+					else
+					{
+						// create the new itemstack to place in the uncrafting inventory
+						ItemStack newStack = new ItemStack(recipeStack.getItem(), amount, recipeStack.getItemDamage());
+
+						// if the crafting recipe item has NBT data, copy that onto the new itemstack
+						// (the tag is copied rather than shared, so that changes to the stack in the grid can't change the recipe)
+						if (recipeStack.hasTagCompound())
+						{
+							newStack.setTagCompound(recipeStack.getTagCompound().copy());
+						}
+
+						// add the new itemstack to the inventory
+						uncraftOut.setInventorySlotContents(index, newStack, StackType.RECIPE);
 					}
-
-					// add the new itemstack to the inventory
-					uncraftOut.setInventorySlotContents(index, newStack, StackType.RECIPE);
 				}
 			}
 			// if the slot in the result grid is empty, clear the corresponding slot in the inventory
@@ -123,6 +165,19 @@ public class ContainerUncraftingTable extends Container
 
 
 	private void doUncraft()
+	{
+		long startTime = UncraftingMetrics.startTiming();
+		try
+		{
+			performUncraft();
+		}
+		finally
+		{
+			UncraftingMetrics.UNCRAFTS.record(startTime);
+		}
+	}
+
+	private void performUncraft()
 	{
 		// if we're not in creative mode
 		if (!playerInventory.player.capabilities.isCreativeMode)
@@ -139,24 +194,8 @@ public class ContainerUncraftingTable extends Container
 			playerInventory.player.experienceLevel -= uncraftingResult.experienceCost;
 		}
 
-		// if the item being uncrafted has enchantments, and there are books in the left hand slot
-		if (uncraftIn.getStackInSlot(0).isItemEnchanted() && calculInput.getStackInSlot(0) != ItemStack.EMPTY && calculInput.getStackInSlot(0).getItem() == Items.BOOK)
-		{
-			// copy the item enchantments onto one or more books
-			List<ItemStack> enchantedBooks = this.getItemEnchantments(uncraftIn.getStackInSlot(0), calculInput.getStackInSlot(0));
-
-			// for each enchanted book
-			for (ItemStack enchantedBook : enchantedBooks)
-			{
-				// add the itemstack to the player inventory, or spawn in the world if the inventory is full
-				if (!playerInventory.addItemStackToInventory(enchantedBook))
-				{
-					playerInventory.player.dropItem(enchantedBook, false);
-				}
-			}
-			// decrement the stack size for the books in the left hand slot
-			calculInput.decrStackSize(0, enchantedBooks.size());
-		}
+		// copy the enchantments from the item being uncrafted onto books
+		returnEnchantedBooksToPlayer(uncraftIn.getStackInSlot(0));
 
 
 		// get the minimum stack size and the crafting grid from the uncrafting result
@@ -181,6 +220,136 @@ public class ContainerUncraftingTable extends Container
 	}
 
 
+	/**
+	 * Uncrafts the whole stack in the input slot, and optionally every matching stack in the player's inventory, as a single operation.
+	 * The outputs are combined into as few stacks as possible and given straight to the player.
+	 * @param includeInventory Whether to uncraft matching stacks from the player's inventory as well as the input stack
+	 */
+	public void bulkUncraft(boolean includeInventory)
+	{
+		resolveChanges();
+		if (!canBulkUncraft()) return;
+
+		long startTime = UncraftingMetrics.startTiming();
+		try
+		{
+			performBulkUncraft(includeInventory);
+		}
+		finally
+		{
+			UncraftingMetrics.UNCRAFTS.record(startTime);
+		}
+	}
+
+	/**
+	 * Returns true if the input stack is ready to uncraft, and the selected recipe doesn't need any container items.
+	 */
+	public boolean canBulkUncraft()
+	{
+		return (uncraftingResult.resultType == ResultType.VALID && !uncraftingResult.needsContainerItems());
+	}
+
+	private void performBulkUncraft(boolean includeInventory)
+	{
+		EntityPlayer player = playerInventory.player;
+		ItemStack inputStack = uncraftIn.getStackInSlot(0);
+		ItemStack uncraftedStack = inputStack.copy();
+
+		// get the minimum stack size and the crafting grid from the uncrafting result
+		int minStackSize = uncraftingResult.getMinStackSize();
+		NonNullList<ItemStack> craftingGrid = uncraftingResult.getCraftingGrid();
+
+		// the stacks to uncraft are the input stack, followed by any identical stacks in the player's main inventory
+		// (enchanted stacks are left in the inventory, as only the input stack's enchantments can be copied onto books)
+		List<ItemStack> sourceStacks = new ArrayList<ItemStack>();
+		sourceStacks.add(inputStack);
+		if (includeInventory && !inputStack.isItemEnchanted())
+		{
+			for ( ItemStack stack : playerInventory.mainInventory )
+			{
+				if (!stack.isEmpty() && ItemStack.areItemsEqual(stack, inputStack) && ItemStack.areItemStackTagsEqual(stack, inputStack)) sourceStacks.add(stack);
+			}
+		}
+
+		// remove the items from each stack, charging the experience cost once per stack as doUncraft does
+		// (the stacks from the inventory don't use any books, so they're charged the cost without them)
+		int multiplier = 0;
+		for ( ItemStack sourceStack : sourceStacks )
+		{
+			int stackMultiplier = (sourceStack.getCount() / minStackSize);
+			if (stackMultiplier == 0) continue;
+
+			if (!player.capabilities.isCreativeMode)
+			{
+				int experienceCost = (sourceStack == inputStack ? uncraftingResult.experienceCost : UncraftingManager.recalculateExperienceCost(sourceStack, ItemStack.EMPTY));
+				if (player.experienceLevel < experienceCost) break;
+				player.experienceLevel -= experienceCost;
+			}
+
+			sourceStack.shrink(minStackSize * stackMultiplier);
+			multiplier += stackMultiplier;
+
+			// only copy the enchantments onto books once the input stack has been paid for and uncrafted
+			if (sourceStack == inputStack) returnEnchantedBooksToPlayer(uncraftedStack);
+		}
+		if (multiplier == 0) return;
+
+		// clear any inventory slots which have been emptied
+		for ( int i = 0 ; i < playerInventory.mainInventory.size() ; i++ )
+		{
+			if (playerInventory.mainInventory.get(i).isEmpty()) playerInventory.mainInventory.set(i, ItemStack.EMPTY);
+		}
+
+		// give the combined items to the player in full stacks
+		for ( ItemStack stack : UncraftingManager.getOutputStacks(craftingGrid, multiplier) )
+		{
+			// add the itemstack to the player inventory, or spawn in the world if the inventory is full
+			if (!playerInventory.addItemStackToInventory(stack))
+			{
+				player.dropItem(stack, false);
+			}
+		}
+
+		// fire a single event for everything that's been uncrafted
+		MinecraftForge.EVENT_BUS.post(new ItemUncraftedEvent(player, uncraftedStack, (minStackSize * multiplier)));
+
+		// the recipe items in the output grid were only there to be taken, so remove them and start again with whatever's left in the input slot
+		uncraftOut.clear(StackType.RECIPE);
+		this.uncraftingResult = new UncraftingResult();
+		if (inputStack.isEmpty()) uncraftIn.setInventorySlotContents(0, ItemStack.EMPTY);
+
+		// trigger an update on the input slot so that it knows it's changed
+		this.getSlot(1).onSlotChanged();
+	}
+
+
+	/**
+	 * Copies the enchantments from the item being uncrafted onto the books in the left hand slot, and gives the books to the player.
+	 * @param itemStack The item being uncrafted, as it was before it was removed from the input slot
+	 */
+	private void returnEnchantedBooksToPlayer(ItemStack itemStack)
+	{
+		// if the item being uncrafted has enchantments, and there are books in the left hand slot
+		if (itemStack.isItemEnchanted() && calculInput.getStackInSlot(0) != ItemStack.EMPTY && calculInput.getStackInSlot(0).getItem() == Items.BOOK)
+		{
+			// copy the item enchantments onto one or more books
+			List<ItemStack> enchantedBooks = this.getItemEnchantments(itemStack, calculInput.getStackInSlot(0));
+
+			// for each enchanted book
+			for (ItemStack enchantedBook : enchantedBooks)
+			{
+				// add the itemstack to the player inventory, or spawn in the world if the inventory is full
+				if (!playerInventory.addItemStackToInventory(enchantedBook))
+				{
+					playerInventory.player.dropItem(enchantedBook, false);
+				}
+			}
+			// decrement the stack size for the books in the left hand slot
+			calculInput.decrStackSize(0, enchantedBooks.size());
+		}
+	}
+
+
 	/**
 	 * Copies enchantments from an item onto a collection of enchanted books.
 	 */
@@ -282,6 +451,8 @@ public class ContainerUncraftingTable extends Container
 
 	public void switchRecipe()
 	{
+		resolveChanges();
+
 		// remove the recipe items from the grid, if present
 		uncraftOut.clear(StackType.RECIPE);
 
@@ -293,7 +464,7 @@ public class ContainerUncraftingTable extends Container
 		}
 
 		// determine the uncrafting result type for the newly selected recipe
-		UncraftingManager.recalculateResultType(uncraftingResult, playerInventory.player, uncraftIn.getStackInSlot(0));
+		if (!this.world.isRemote) updateResultType(UncraftingResult.CHANGED_GRID);
 
 		// populate the output inventory if it's appropriate to do so
 		if (uncraftingResult.canPopulateInventory())
@@ -303,7 +474,157 @@ public class ContainerUncraftingTable extends Container
 	}
 
 
+	/**
+	 * Replaces the uncrafting result with one sent by the server, and updates the recipe items in the output grid to match.
+	 */
+	public void setUncraftingResult(UncraftingResult uncraftingResult)
+	{
+		// handle any changes the client has predicted first, so that they can't replace the server's result afterwards
+		resolveChanges();
+
+		this.uncraftingResult = uncraftingResult;
+
+		// once the item has been uncrafted, the items left in the output grid belong to the player
+		if (uncraftingResult.resultType == ResultType.UNCRAFTED) return;
+
+		uncraftOut.clear(StackType.RECIPE);
+		if (uncraftingResult.canPopulateInventory())
+		{
+			populateOutputInventory();
+		}
+	}
+
+
+	/**
+	 * Updates the result type, experience cost and selected recipe of the current uncrafting result with those sent by the server,
+	 * and updates the recipe items in the output grid to match.
+	 */
+	public void setUncraftingResultState(ResultType resultType, int experienceCost, int selectedCraftingGrid)
+	{
+		// handle any changes the client has predicted first, so that they can't replace the server's result afterwards
+		resolveChanges();
+
+		// the client's result may have been cleared since the update was sent, in which case there's no recipe to select
+		if (selectedCraftingGrid >= uncraftingResult.getRecipeCount()) selectedCraftingGrid = 0;
+
+		uncraftingResult.resultType = resultType;
+		uncraftingResult.experienceCost = experienceCost;
+		uncraftingResult.selectedCraftingGrid = selectedCraftingGrid;
+
+		// once the item has been uncrafted, the items left in the output grid belong to the player
+		if (resultType == ResultType.UNCRAFTED) return;
+
+		uncraftOut.clear(StackType.RECIPE);
+		if (uncraftingResult.canPopulateInventory())
+		{
+			populateOutputInventory();
+		}
+	}
+
+
+	/**
+	 * Replaces the contents of the output grid with those sent by the server.
+	 */
+	public void setOutputGrid(ItemStack[] recipeItems, ItemStack[] containerItems)
+	{
+		for ( int i = 0 ; i < uncraftOut.getSizeInventory() ; i++ )
+		{
+			uncraftOut.setInventorySlotContents(i, recipeItems[i], StackType.RECIPE);
+			uncraftOut.setInventorySlotContents(i, containerItems[i], StackType.CONTAINER);
+		}
+	}
+
+
+	/**
+	 * Sends the uncrafting result and the contents of the output grid to the client if they've changed since they were last sent.
+	 */
+	@Override
+	public void detectAndSendChanges()
+	{
+		// this is called each tick, and after each click the player makes
+		resolveChanges();
+
+		// send the changed slots as vanilla does, except for the output grid slots, as the grid is sent as a whole below
+		for ( int i = 0 ; i < this.inventorySlots.size() ; i++ )
+		{
+			Slot slot = this.inventorySlots.get(i);
+			if (slot.inventory == uncraftOut) continue;
+
+			ItemStack stack = slot.getStack();
+			ItemStack sentStack = this.inventoryItemStacks.get(i);
+			if (!ItemStack.areItemStacksEqual(sentStack, stack))
+			{
+				sentStack = (stack.isEmpty() ? ItemStack.EMPTY : stack.copy());
+				this.inventoryItemStacks.set(i, sentStack);
+
+				for ( IContainerListener listener : this.listeners )
+				{
+					listener.sendSlotContents(this, i, sentStack);
+				}
+			}
+		}
+
+		if (playerInventory.player instanceof EntityPlayerMP)
+		{
+			if (this.uncraftingResult != this.sentResult || this.uncraftingResult.resultType != this.sentResultType
+				|| this.uncraftingResult.experienceCost != this.sentExperienceCost || this.uncraftingResult.selectedCraftingGrid != this.sentSelectedCraftingGrid)
+			{
+				// the crafting grids only need sending when the result has been looked up again, otherwise the client can update the result it has
+				boolean resultChanged = (this.uncraftingResult != this.sentResult);
+
+				this.sentResult = this.uncraftingResult;
+				this.sentResultType = this.uncraftingResult.resultType;
+				this.sentExperienceCost = this.uncraftingResult.experienceCost;
+				this.sentSelectedCraftingGrid = this.uncraftingResult.selectedCraftingGrid;
+
+				if (resultChanged) ModUncrafting.NETWORK.sendTo(new UncraftingResultMessage(this.windowId, this.uncraftingResult), (EntityPlayerMP)playerInventory.player);
+				else ModUncrafting.NETWORK.sendTo(new UncraftingResultStateMessage(this.windowId, this.uncraftingResult), (EntityPlayerMP)playerInventory.player);
+			}
+
+			// send the grid after the result, so that it replaces the grid the client fills in from the result
+			if (outputGridChanged())
+			{
+				ItemStack[] recipeItems = new ItemStack[uncraftOut.getSizeInventory()];
+				ItemStack[] containerItems = new ItemStack[uncraftOut.getSizeInventory()];
+				for ( int i = 0 ; i < uncraftOut.getSizeInventory() ; i++ )
+				{
+					recipeItems[i] = uncraftOut.getStackInSlot(i, StackType.RECIPE).copy();
+					containerItems[i] = uncraftOut.getStackInSlot(i, StackType.CONTAINER).copy();
+				}
+				ModUncrafting.NETWORK.sendTo(new UncraftingGridMessage(this.windowId, recipeItems, containerItems), (EntityPlayerMP)playerInventory.player);
+
+				// the message only reads the stacks when it's written, so the same copies can be kept to compare against
+				this.sentRecipeItems = recipeItems;
+				this.sentContainerItems = containerItems;
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the output grid hasn't been sent to the client yet, or any of its stacks have changed since it was last sent.
+	 */
+	private boolean outputGridChanged()
+	{
+		if (this.sentRecipeItems == null || this.sentContainerItems == null) return true;
+
+		for ( int i = 0 ; i < uncraftOut.getSizeInventory() ; i++ )
+		{
+			if (!ItemStack.areItemStacksEqual(this.sentRecipeItems[i], uncraftOut.getStackInSlot(i, StackType.RECIPE))) return true;
+			if (!ItemStack.areItemStacksEqual(this.sentContainerItems[i], uncraftOut.getStackInSlot(i, StackType.CONTAINER))) return true;
+		}
+		return false;
+	}
+
+
+	/**
+	 * Callback for when a different item is placed in the input slot. The change is handled by resolveChanges.
+	 */
 	public void onInputItemChanged()
+	{
+		this.inputItemChanged = true;
+	}
+
+	private void handleInputItemChanged()
 	{
 		ItemStack inputStack = uncraftIn.getStackInSlot(0);
 
@@ -317,82 +638,214 @@ public class ContainerUncraftingTable extends Container
 			{
 				returnUncraftingOutputItemsToPlayer();
 			}
-			this.uncraftingResult = UncraftingManager.getUncraftingResult(playerInventory.player, inputStack);
-			this.uncraftingResult.experienceCost = UncraftingManager.recalculateExperienceCost(inputStack, calculInput.getStackInSlot(0));
+			if (!this.world.isRemote)
+			{
+				this.uncraftingResult = UncraftingManager.getUncraftingResult(playerInventory.player, inputStack);
+				this.uncraftingResult.experienceCost = UncraftingManager.recalculateExperienceCost(inputStack, calculInput.getStackInSlot(0));
+
+				// the cost with the books may be more than the player can afford
+				updateResultType(UncraftingResult.CHANGED_EXPERIENCE);
+			}
 		}
 
-		onCraftMatrixChanged(uncraftIn);
+		// the result has just been looked up for the new item, so it doesn't need recalculating
+		handleInputChanged(false);
 	}
 
 
 	/**
 	 * Callback for when the crafting matrix is changed.
+	 * Changes to the input slots are handled by resolveChanges, but changes to the output grid are handled straight away.
 	 */
 	@Override
 	public void onCraftMatrixChanged(IInventory inventory)
 	{
-
+		if (inventory == uncraftIn)
+		{
+			this.inputChanged = true;
+			return;
+		}
 		if (inventory == calculInput)
 		{
-			this.uncraftingResult.experienceCost = UncraftingManager.recalculateExperienceCost(uncraftIn.getStackInSlot(0), calculInput.getStackInSlot(0));
+			this.bookChanged = true;
+			return;
 		}
 
-		// if the right input slot changes
-		else if (inventory == uncraftIn)
+		long startTime = UncraftingMetrics.startTiming();
+		try
+		{
+			handleCraftMatrixChanged(inventory);
+		}
+		finally
 		{
-			// get the stack in the input inventory slot
-			ItemStack inputStack = uncraftIn.getStackInSlot(0);
+			UncraftingMetrics.MATRIX_CHANGES.record(startTime);
+		}
+	}
 
-			// if the stack is empty
-			if (inputStack.isEmpty())
+	/**
+	 * Handles any changes to the input slots since this was last called, so that a single click or packet
+	 * only works out the uncrafting result once, however many times the slots were changed along the way.
+	 * Called by detectAndSendChanges on the server and each tick by the gui on the client,
+	 * as well as before anything which depends on the uncrafting result being up to date.
+	 */
+	public void resolveChanges()
+	{
+		EntityPlayer player = playerInventory.player;
+		boolean experienceChanged = (player.experienceLevel != this.experienceLevel || player.capabilities.isCreativeMode != this.isCreativeMode);
+		if (!this.inputItemChanged && !this.inputChanged && !this.bookChanged && !experienceChanged) return;
+
+		boolean inputItemChanged = this.inputItemChanged;
+		boolean inputChanged = this.inputChanged;
+		boolean bookChanged = this.bookChanged;
+		this.inputItemChanged = false;
+		this.inputChanged = false;
+		this.bookChanged = false;
+
+		// everything below is checked against the player's current experience level
+		this.experienceLevel = player.experienceLevel;
+		this.isCreativeMode = player.capabilities.isCreativeMode;
+
+		long startTime = UncraftingMetrics.startTiming();
+		try
+		{
+			// looking up a new input item works out the experience cost with the current books as well
+			if (inputItemChanged) handleInputItemChanged();
+			else
 			{
-				// if the slot is empty because we've finished uncrafting something
-				if (this.uncraftingResult.resultType == ResultType.UNCRAFTED)
-				{
-					// if the player has removed all the items from the uncrafting grid
-					if (uncraftOut.isEmpty())
-					{
-						// clear the uncrafting result
-						this.uncraftingResult = new UncraftingResult();
-					}
-				}
-				// if it's empty because the player removed the items
-				if (this.uncraftingResult.resultType != ResultType.UNCRAFTED)
+				if (inputChanged) handleInputChanged(true);
+				if (bookChanged) handleCraftMatrixChanged(calculInput);
+			}
+
+			// the player's experience may have changed on its own, such as by picking up experience orbs
+			if (experienceChanged && !inputItemChanged && !this.world.isRemote && isResultTypeActive())
+			{
+				updateResultType(UncraftingResult.CHANGED_EXPERIENCE);
+				refreshOutputInventory();
+			}
+		}
+		finally
+		{
+			UncraftingMetrics.MATRIX_CHANGES.record(startTime);
+		}
+	}
+
+	/**
+	 * Handles the right input slot changing.
+	 * @param recalculate Whether the uncrafting result needs to be updated for the input stack
+	 */
+	private void handleInputChanged(boolean recalculate)
+	{
+		// get the stack in the input inventory slot
+		ItemStack inputStack = uncraftIn.getStackInSlot(0);
+
+		// if the stack is empty
+		if (inputStack.isEmpty())
+		{
+			// if the slot is empty because we've finished uncrafting something
+			if (this.uncraftingResult.resultType == ResultType.UNCRAFTED)
+			{
+				// if the player has removed all the items from the uncrafting grid
+				if (uncraftOut.isEmpty())
 				{
-					// clear the recipe items from the output grid
-					uncraftOut.clear(StackType.RECIPE);
 					// clear the uncrafting result
 					this.uncraftingResult = new UncraftingResult();
 				}
 			}
-			// if the stack is not empty
-			else
+			// if it's empty because the player removed the items
+			if (this.uncraftingResult.resultType != ResultType.UNCRAFTED)
 			{
-				if (this.uncraftingResult.resultType != ResultType.UNCRAFTED)
+				// clear the recipe items from the output grid
+				uncraftOut.clear(StackType.RECIPE);
+				// clear the uncrafting result
+				this.uncraftingResult = new UncraftingResult();
+			}
+		}
+		// if the stack is not empty
+		else
+		{
+			if (this.uncraftingResult.resultType != ResultType.UNCRAFTED)
+			{
+				// update the uncrafting result type for the updated input stack
+				// (the client keeps its current result until the server sends the updated one)
+				if (!this.world.isRemote && recalculate)
 				{
-					// update the uncrafting result type for the updated input stack
 					if (this.uncraftingResult.resultType == ResultType.INACTIVE)
 					{
 						this.uncraftingResult = UncraftingManager.getUncraftingResult(playerInventory.player, inputStack);
 					}
 					else
 					{
-						UncraftingManager.recalculateResultType(uncraftingResult, playerInventory.player, inputStack);
+						// only the number of items has changed
+						updateResultType(UncraftingResult.CHANGED_COUNT);
 					}
+				}
 
-					// if the item in the input stack can be uncrafted...
-					if (this.uncraftingResult.canPopulateInventory())
-					{
-						populateOutputInventory();
-					}
-					else
-					{
-						uncraftOut.clear(StackType.RECIPE);
-						if (!uncraftOut.isEmpty()) returnContainerItemsToPlayer();
-					}
+				refreshOutputInventory();
+			}
+		}
+	}
+
+	/**
+	 * Updates the result type after some of the things it depends on have changed.
+	 * @param changes The things which have changed, as a combination of the UncraftingResult.CHANGED_* flags
+	 */
+	private void updateResultType(int changes)
+	{
+		EntityPlayer player = playerInventory.player;
+		this.experienceLevel = player.experienceLevel;
+		this.isCreativeMode = player.capabilities.isCreativeMode;
+
+		UncraftingManager.updateResultType(uncraftingResult, uncraftIn.getStackInSlot(0), this.isCreativeMode, this.experienceLevel, changes);
+	}
+
+	/**
+	 * Returns true if the result type depends on the input stack, i.e. there's an item in the input slot which hasn't been uncrafted yet.
+	 */
+	private boolean isResultTypeActive()
+	{
+		return (uncraftingResult.resultType != ResultType.INACTIVE && uncraftingResult.resultType != ResultType.UNCRAFTED);
+	}
+
+	/**
+	 * Fills or clears the output grid to match the result type.
+	 */
+	private void refreshOutputInventory()
+	{
+		// if the item in the input stack can be uncrafted...
+		if (this.uncraftingResult.canPopulateInventory())
+		{
+			populateOutputInventory();
+
+			// the player may already have put the container items in the grid
+			if (this.uncraftingResult.resultType == ResultType.NEED_CONTAINER_ITEMS && !uncraftOut.missingContainerItems())
+			{
+				this.uncraftingResult.resultType = ResultType.VALID;
+				populateOutputInventory();
+			}
+		}
+		else
+		{
+			uncraftOut.clear(StackType.RECIPE);
+			if (!uncraftOut.isEmpty()) returnContainerItemsToPlayer();
+		}
+	}
+
+	private void handleCraftMatrixChanged(IInventory inventory)
+	{
+
+		if (inventory == calculInput)
+		{
+			if (!this.world.isRemote)
+			{
+				this.uncraftingResult.experienceCost = UncraftingManager.recalculateExperienceCost(uncraftIn.getStackInSlot(0), calculInput.getStackInSlot(0));
+
+				// the books change the experience cost, which may change whether the player can afford it
+				if (isResultTypeActive())
+				{
+					updateResultType(UncraftingResult.CHANGED_EXPERIENCE);
+					refreshOutputInventory();
 				}
 			}
-			return;
 		}
 
 		// if the uncrafting result inventory changes
@@ -420,9 +873,10 @@ public class ContainerUncraftingTable extends Container
 				{
 					uncraftingResult = new UncraftingResult();
 				}
-				else
+				else if (!this.world.isRemote)
 				{
-					UncraftingManager.recalculateResultType(uncraftingResult, playerInventory.player, uncraftIn.getStackInSlot(0));
+					// the item has been uncrafted, so the player has fewer items and experience levels than when the result type was last checked
+					updateResultType(UncraftingResult.CHANGED_COUNT | UncraftingResult.CHANGED_EXPERIENCE);
 				}
 
 //				this.uncraftingResult = new UncraftingResult();
@@ -478,6 +932,15 @@ public class ContainerUncraftingTable extends Container
 	 */
 	@Override
 	public ItemStack transferStackInSlot(EntityPlayer player, int index)
+	{
+		ItemStack result = transferStack(player, index);
+
+		// shift clicking is repeated while it keeps returning the same item, so each time has to see the result for the slots as they are now
+		resolveChanges();
+		return result;
+	}
+
+	private ItemStack transferStack(EntityPlayer player, int index)
 	{
 		// get the slot specified by the index
 		Slot slot = (Slot)this.inventorySlots.get(index);
@@ -522,7 +985,12 @@ public class ContainerUncraftingTable extends Container
 				if (uncraftOut.isEmpty())
 				{
 					this.uncraftingResult = new UncraftingResult();
-					if (uncraftIn.getStackInSlot(0) != ItemStack.EMPTY) this.onCraftMatrixChanged(uncraftIn);
+					if (uncraftIn.getStackInSlot(0) != ItemStack.EMPTY)
+					{
+						// look up the result for what's left in the input slot straight away, as it's checked below
+						this.onCraftMatrixChanged(uncraftIn);
+						resolveChanges();
+					}
 				}
 
 				if (this.uncraftingResult.resultType == ResultType.UNCRAFTED)
@@ -617,11 +1085,26 @@ public class ContainerUncraftingTable extends Container
 	}
 
 
+	@Override
+	public ItemStack slotClick(int slotId, int dragType, ClickType clickType, EntityPlayer player)
+	{
+		// each click starts from an up to date uncrafting result
+		resolveChanges();
+		return super.slotClick(slotId, dragType, clickType, player);
+	}
+
 	@Override
 	public void putStackInSlot(int slotId, ItemStack stack)
 	{
-		// TODO: i assume there's a reason that Container does this, but this container seems to work without it!
-		// this.getSlot(slotId).putStack(stack);
+		// the client fills the output grid from the uncrafting result, but the other slots need to follow the server
+		// so that changes it makes on its own (such as bulk uncrafting) are shown.
+		// the server doesn't send slots the client has already predicted correctly, but a stack which already matches is skipped anyway,
+		// so that it doesn't mark the input slots as changed and make the client work out its result again
+		Slot slot = this.getSlot(slotId);
+		if (slot.inventory != uncraftOut && !ItemStack.areItemStacksEqual(slot.getStack(), stack))
+		{
+			slot.putStack(stack);
+		}
 	}
 
 	@Override
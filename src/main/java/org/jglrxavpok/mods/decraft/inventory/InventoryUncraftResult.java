@@ -1,5 +1,7 @@
 package org.jglrxavpok.mods.decraft.inventory;
 
+import java.util.Arrays;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult;
 import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult.ResultType;
 
 import net.minecraft.entity.player.EntityPlayer;
@@ -19,23 +21,75 @@ public class InventoryUncraftResult implements IInventory
 	}
 
 
-	private class ItemStackPair
-	{
-		private ItemStack recipeItem = ItemStack.EMPTY;
-		private ItemStack containerItem = ItemStack.EMPTY;
-	}
+	// the recipe items and container items in each slot
+	private final ItemStack[] recipeItems = new ItemStack[9];
+	private final ItemStack[] containerItems = new ItemStack[9];
+
+	// whether the recipe item in each slot leaves a container item behind, worked out from the stack in the slot when it's set
+	// (the stack can differ from the one in the uncrafting result's crafting grid once the player has put a container item in the slot)
+	private final boolean[] hasContainerItem = new boolean[9];
+
+	// the stack shown in each slot, which depends on the result type,
+	// worked out again only when the result type or the contents of the inventory change
+	private final ItemStack[] visibleItems = new ItemStack[9];
+	private UncraftingResult visibleResult = null;
+	private ResultType visibleResultType = null;
+	private boolean visibleItemsChanged = true;
 
-	private ItemStackPair[] stackResult = new ItemStackPair[9];
 	private ContainerUncraftingTable eventHandler;
 
 
 	public InventoryUncraftResult(ContainerUncraftingTable p_i1807_1_)
 	{
-		for ( int i = 0 ; i < stackResult.length ; i++ )
+		Arrays.fill(this.recipeItems, ItemStack.EMPTY);
+		Arrays.fill(this.containerItems, ItemStack.EMPTY);
+		Arrays.fill(this.visibleItems, ItemStack.EMPTY);
+		this.eventHandler = p_i1807_1_;
+	}
+
+
+	private void setRecipeItem(int index, ItemStack stack)
+	{
+		this.recipeItems[index] = stack;
+		this.hasContainerItem[index] = (stack != ItemStack.EMPTY && stack.getItem().hasContainerItem(stack)); // the hasContainerItem parameter is usually ignored, but some mods (Immersive Engineering) need it to be there
+		this.visibleItemsChanged = true;
+	}
+
+	private void setContainerItem(int index, ItemStack stack)
+	{
+		this.containerItems[index] = stack;
+		this.visibleItemsChanged = true;
+	}
+
+	/**
+	 * Works out the stack shown in each slot, if the result type or the contents have changed since it was last worked out.
+	 * The result type is compared here because the container changes it directly.
+	 */
+	private void updateVisibleItems()
+	{
+		UncraftingResult uncraftingResult = this.eventHandler.uncraftingResult;
+		if (!this.visibleItemsChanged && uncraftingResult == this.visibleResult && uncraftingResult.resultType == this.visibleResultType) return;
+
+		this.visibleItemsChanged = false;
+		this.visibleResult = uncraftingResult;
+		this.visibleResultType = uncraftingResult.resultType;
+
+		if (uncraftingResult.resultType == ResultType.INACTIVE)
 		{
-			stackResult[i] = new ItemStackPair();
+			System.arraycopy(this.containerItems, 0, this.visibleItems, 0, this.visibleItems.length);
+		}
+		else if (uncraftingResult.resultType == ResultType.NEED_CONTAINER_ITEMS)
+		{
+			// only the recipe items whose container items have been provided are shown
+			for ( int index = 0 ; index < this.visibleItems.length ; index++ )
+			{
+				this.visibleItems[index] = (this.hasContainerItem[index] && this.containerItems[index] != ItemStack.EMPTY ? this.recipeItems[index] : ItemStack.EMPTY);
+			}
+		}
+		else
+		{
+			System.arraycopy(this.recipeItems, 0, this.visibleItems, 0, this.visibleItems.length);
 		}
-		this.eventHandler = p_i1807_1_;
 	}
 
 
@@ -55,33 +109,16 @@ public class InventoryUncraftResult implements IInventory
 	@Override
 	public ItemStack getStackInSlot(int index)
 	{
-		if (this.eventHandler.uncraftingResult.resultType == ResultType.INACTIVE)
-		{
-			return this.stackResult[index].containerItem;
-		}
-		else if (this.eventHandler.uncraftingResult.resultType == ResultType.NEED_CONTAINER_ITEMS)
-		{
-			if (this.stackResult[index].recipeItem != ItemStack.EMPTY && stackResult[index].recipeItem.getItem().hasContainerItem(stackResult[index].recipeItem) && this.stackResult[index].containerItem != ItemStack.EMPTY) // the hasContainerItem parameter is usually ignored, but some mods (Immersive Engineering) need it to be there
-			{
-				return this.stackResult[index].recipeItem;
-			}
-			else
-			{
-				return ItemStack.EMPTY;
-			}
-		}
-		else
-		{
-			return this.stackResult[index].recipeItem;
-		}
+		updateVisibleItems();
+		return this.visibleItems[index];
 	}
 
 	public ItemStack getStackInSlot(int index, StackType stackType)
 	{
 		switch (stackType)
 		{
-			case RECIPE: return this.stackResult[index].recipeItem;
-			case CONTAINER: return this.stackResult[index].containerItem;
+			case RECIPE: return this.recipeItems[index];
+			case CONTAINER: return this.containerItems[index];
 			default: return null;
 		}
 	}
@@ -97,13 +134,13 @@ public class InventoryUncraftResult implements IInventory
 		if ((this.eventHandler.uncraftingResult.resultType == ResultType.VALID) || (this.eventHandler.uncraftingResult.resultType == ResultType.UNCRAFTED))
 		{
 			// if there's a recipe item present in this slot
-			if (this.stackResult[index].recipeItem != ItemStack.EMPTY)
+			if (this.recipeItems[index] != ItemStack.EMPTY)
 			{
 				// remove the recipe item from the slot, and return it
-				ItemStack itemstack = this.stackResult[index].recipeItem;
+				ItemStack itemstack = this.recipeItems[index];
 
-				this.stackResult[index].recipeItem = ItemStack.EMPTY;
-				this.stackResult[index].containerItem = ItemStack.EMPTY;
+				setRecipeItem(index, ItemStack.EMPTY);
+				setContainerItem(index, ItemStack.EMPTY);
 
 				this.eventHandler.onCraftMatrixChanged(this);
 				return itemstack;
@@ -113,12 +150,12 @@ public class InventoryUncraftResult implements IInventory
 		else //if (this.eventHandler.uncraftingResult.resultType == ResultType.VALID)
 		{
 			// if there's a container item present in this slot
-			if (this.stackResult[index].containerItem != ItemStack.EMPTY)
+			if (this.containerItems[index] != ItemStack.EMPTY)
 			{
 				// remove the container item from the slot, and return it
-				ItemStack itemstack = this.stackResult[index].containerItem;
+				ItemStack itemstack = this.containerItems[index];
 
-				this.stackResult[index].containerItem = ItemStack.EMPTY;
+				setContainerItem(index, ItemStack.EMPTY);
 
 				this.eventHandler.onCraftMatrixChanged(this);
 				return itemstack;
@@ -139,11 +176,11 @@ public class InventoryUncraftResult implements IInventory
 		if (this.eventHandler.uncraftingResult.resultType == ResultType.UNCRAFTED)
 		{
 			// if there's a recipe item present in this slot
-			if (this.stackResult[index].recipeItem != ItemStack.EMPTY)
+			if (this.recipeItems[index] != ItemStack.EMPTY)
 			{
 				// remove the recipe item from the slot, and return it
-				ItemStack itemstack = this.stackResult[index].recipeItem;
-				this.stackResult[index].recipeItem = ItemStack.EMPTY;
+				ItemStack itemstack = this.recipeItems[index];
+				setRecipeItem(index, ItemStack.EMPTY);
 				return itemstack;
 			}
 		}
@@ -151,11 +188,11 @@ public class InventoryUncraftResult implements IInventory
 		else // if (this.eventHandler.uncraftingResult.resultType == ResultType.VALID)
 		{
 			// if there's a container item present in this slot
-			if (this.stackResult[index].containerItem != ItemStack.EMPTY)
+			if (this.containerItems[index] != ItemStack.EMPTY)
 			{
 				// remove the container item from the slot, and return it
-				ItemStack itemstack = this.stackResult[index].containerItem;
-				this.stackResult[index].containerItem = ItemStack.EMPTY;
+				ItemStack itemstack = this.containerItems[index];
+				setContainerItem(index, ItemStack.EMPTY);
 				return itemstack;
 			}
 		}
@@ -170,28 +207,28 @@ public class InventoryUncraftResult implements IInventory
 	public void setInventorySlotContents(int index, ItemStack stack)
 	{
 		// if the slot isn't empty, and the item in the slot requires a container item
-		if (stack != ItemStack.EMPTY && this.stackResult[index].recipeItem != ItemStack.EMPTY && stackResult[index].recipeItem.getItem().hasContainerItem(stackResult[index].recipeItem)) // the hasContainerItem parameter is usually ignored, but some mods (Immersive Engineering) need it to be there
+		if (stack != ItemStack.EMPTY && this.hasContainerItem[index])
 		{
 			// get the container item for the recipe item
-			Item recipeItem = stackResult[index].recipeItem.getItem();
+			Item recipeItem = this.recipeItems[index].getItem();
 			Item containerItem = recipeItem.getContainerItem(); if (containerItem == null) containerItem = recipeItem;  // some mods (e.g. IC2) use a null container item for some recipes
 
 			// if the stack being passed in is the correct container item for the recipe item
 			if (stack.getItem() == containerItem)
 			{
 				// store the container item
-				this.stackResult[index].containerItem = stack;
+				setContainerItem(index, stack);
 
 				// if the recipe item and the container items are equal
 				if (recipeItem == containerItem)
 				{
 					// copy the container stack into the recipe stack
 					ItemStack newStack = stack.copy();
-					this.stackResult[index].recipeItem = newStack;
+					setRecipeItem(index, newStack);
 
 					// update the uncrafting recipe itself with the provided container item rather than the default
 					// (this is for mods like tinker's construct where chisels vary based on nbt data)
-					this.eventHandler.uncraftingResult.getCraftingGrid().set(index, newStack); // TODO: this probably shouldn't be happening in the inventory
+					this.eventHandler.uncraftingResult.setCraftingGridStack(index, newStack); // TODO: this probably shouldn't be happening in the inventory
 				}
 
 				this.eventHandler.onCraftMatrixChanged(this);
@@ -200,11 +237,11 @@ public class InventoryUncraftResult implements IInventory
 		// if the slot is empty, or the slot item doesn't require a container item, set the recipe item
 		else
 		{
-			this.stackResult[index].recipeItem = stack;
+			setRecipeItem(index, stack);
 
 			if (this.eventHandler.uncraftingResult.resultType == ResultType.INACTIVE && stack == ItemStack.EMPTY)
 			{
-				this.stackResult[index].containerItem = stack;
+				setContainerItem(index, stack);
 			}
 
 			this.eventHandler.onCraftMatrixChanged(this);
@@ -215,8 +252,8 @@ public class InventoryUncraftResult implements IInventory
 	{
 		switch (stackType)
 		{
-			case RECIPE: this.stackResult[index].recipeItem = stack; break;
-			case CONTAINER: this.stackResult[index].containerItem = stack; break;
+			case RECIPE: setRecipeItem(index, stack); break;
+			case CONTAINER: setContainerItem(index, stack); break;
 		}
 	}
 
@@ -300,15 +337,15 @@ public class InventoryUncraftResult implements IInventory
 	public boolean isItemValidForSlot(int index, ItemStack stack)
 	{
 		// if the recipe item has a container item
-		if (stackResult[index].recipeItem != ItemStack.EMPTY && stackResult[index].recipeItem.getItem().hasContainerItem(stackResult[index].recipeItem)) // the hasContainerItem parameter is usually ignored, but some mods (Immersive Engineering) need it to be there
+		if (this.hasContainerItem[index])
 		{
 			// get the container item for the recipe item
-			Item recipeItem = stackResult[index].recipeItem.getItem();
+			Item recipeItem = this.recipeItems[index].getItem();
 			Item containerItem = recipeItem.getContainerItem(); // if (containerItem == null) containerItem = recipeItem;  // some mods (e.g. IC2, IE) use a null container item for some recipes
 
 			if (containerItem == null) // some mods (e.g. IC2, IE) use a null container item for some recipes
 			{
-				return ItemStack.areItemsEqual(stackResult[index].recipeItem, stack);
+				return ItemStack.areItemsEqual(this.recipeItems[index], stack);
 			}
 			else
 			{
@@ -352,9 +389,9 @@ public class InventoryUncraftResult implements IInventory
 	@Override
 	public boolean isEmpty()
 	{
-		for (int i = 0; i < this.stackResult.length; i++ )
+		for (int i = 0; i < this.recipeItems.length; i++ )
 		{
-			if (!(stackResult[i].recipeItem.isEmpty() && stackResult[i].containerItem.isEmpty())) return false;
+			if (!(this.recipeItems[i].isEmpty() && this.containerItems[i].isEmpty())) return false;
 		}
 		return true;
 	}
@@ -363,29 +400,22 @@ public class InventoryUncraftResult implements IInventory
 	@Override
 	public void clear()
 	{
-		for (int i = 0; i < this.stackResult.length; ++i)
-		{
-			this.stackResult[i].recipeItem = ItemStack.EMPTY;
-			this.stackResult[i].containerItem = ItemStack.EMPTY;
-		}
+		clear(StackType.RECIPE);
+		clear(StackType.CONTAINER);
 	}
 
 	public void clear(StackType stackType)
 	{
+		this.visibleItemsChanged = true;
 		switch (stackType)
 		{
 			case RECIPE:
-				for (int i = 0; i < this.stackResult.length; ++i)
-				{
-					this.stackResult[i].recipeItem = ItemStack.EMPTY;
-				}
+				Arrays.fill(this.recipeItems, ItemStack.EMPTY);
+				Arrays.fill(this.hasContainerItem, false);
 				break;
 
 			case CONTAINER:
-				for (int i = 0; i < this.stackResult.length; ++i)
-				{
-					this.stackResult[i].containerItem = ItemStack.EMPTY;
-				}
+				Arrays.fill(this.containerItems, ItemStack.EMPTY);
 				break;
 		}
 	}
@@ -393,9 +423,9 @@ public class InventoryUncraftResult implements IInventory
 
 	public boolean missingContainerItems()
 	{
-		for (int index = 0; index < this.stackResult.length; ++index)
+		for (int index = 0; index < this.recipeItems.length; ++index)
 		{
-			if (stackResult[index].recipeItem != ItemStack.EMPTY && stackResult[index].recipeItem.getItem().hasContainerItem(stackResult[index].recipeItem) && this.stackResult[index].containerItem == ItemStack.EMPTY) // the hasContainerItem parameter is usually ignored, but some mods (Immersive Engineering) need it to be there
+			if (this.hasContainerItem[index] && this.containerItems[index] == ItemStack.EMPTY)
 			{
 				return true;
 			}
@@ -406,9 +436,9 @@ public class InventoryUncraftResult implements IInventory
 	public int missingContainerItemCount()
 	{
 		int count = 0;
-		for (int index = 0; index < this.stackResult.length; ++index)
+		for (int index = 0; index < this.recipeItems.length; ++index)
 		{
-			if (stackResult[index].recipeItem != ItemStack.EMPTY && stackResult[index].recipeItem.getItem().hasContainerItem(stackResult[index].recipeItem) && this.stackResult[index].containerItem == ItemStack.EMPTY) // the hasContainerItem parameter is usually ignored, but some mods (Immersive Engineering) need it to be there
+			if (this.hasContainerItem[index] && this.containerItems[index] == ItemStack.EMPTY)
 			{
 				count++;
 			}
@@ -0,0 +1,388 @@
+package org.jglrxavpok.mods.decraft.item.uncrafting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.inventory.Container;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+import net.minecraft.util.NonNullList;
+import net.minecraftforge.oredict.ShapedOreRecipe;
+import net.minecraftforge.oredict.ShapelessOreRecipe;
+
+
+/**
+ * Checks crafting grids against the recipes blocked by CraftTweaker.
+ * The blocked recipes are compiled into fingerprints of the items in their crafting grids (the trimmed 3x3 layout for shaped recipes,
+ * and a sorted list of items for shapeless recipes), so that a crafting grid only needs to be tested against the recipes which share its fingerprint.
+ *
+ */
+public class BlockedRecipeMatcher
+{
+
+	// the maximum number of fingerprints to generate for a recipe whose ingredients accept several different items,
+	// after which the recipe is tested against every crafting grid instead
+	private static final int MAX_FINGERPRINTS_PER_RECIPE = 256;
+
+	private static final int EMPTY_SLOT = -1;
+
+	// a container which ignores changes to the crafting matrix, so that the matrix can be filled in without an event handler
+	private static final Container EMPTY_CONTAINER = new Container()
+	{
+		@Override
+		public boolean canInteractWith(EntityPlayer player)
+		{
+			return false;
+		}
+
+		@Override
+		public void onCraftMatrixChanged(IInventory inventory)
+		{
+		}
+	};
+
+	private final Map<Fingerprint, List<IRecipe>> shapedRecipes = new HashMap<Fingerprint, List<IRecipe>>();
+	private final Map<Fingerprint, List<IRecipe>> shapelessRecipes = new HashMap<Fingerprint, List<IRecipe>>();
+	private final List<IRecipe> otherRecipes = new ArrayList<IRecipe>();
+
+
+	public BlockedRecipeMatcher(Collection<IRecipe> recipes)
+	{
+		for ( IRecipe recipe : recipes )
+		{
+			if (!addRecipe(recipe))
+			{
+				// if we couldn't fingerprint the recipe, fall back to testing it against every crafting grid
+				this.otherRecipes.add(recipe);
+			}
+		}
+	}
+
+
+	/**
+	 * Returns true if the crafting grid matches one of the blocked recipes.
+	 */
+	public boolean matches(NonNullList<ItemStack> craftingGrid)
+	{
+		if (this.shapedRecipes.isEmpty() && this.shapelessRecipes.isEmpty() && this.otherRecipes.isEmpty()) return false;
+
+		InventoryCrafting craftMatrix = null;
+
+		if (!this.shapedRecipes.isEmpty())
+		{
+			List<IRecipe> candidates = this.shapedRecipes.get(getShapedFingerprint(craftingGrid));
+			if (candidates != null)
+			{
+				craftMatrix = createCraftMatrix(craftingGrid);
+				if (matchesAny(candidates, craftMatrix)) return true;
+			}
+		}
+
+		if (!this.shapelessRecipes.isEmpty())
+		{
+			List<IRecipe> candidates = this.shapelessRecipes.get(getShapelessFingerprint(craftingGrid));
+			if (candidates != null)
+			{
+				if (craftMatrix == null) craftMatrix = createCraftMatrix(craftingGrid);
+				if (matchesAny(candidates, craftMatrix)) return true;
+			}
+		}
+
+		if (!this.otherRecipes.isEmpty())
+		{
+			if (craftMatrix == null) craftMatrix = createCraftMatrix(craftingGrid);
+			if (matchesAny(this.otherRecipes, craftMatrix)) return true;
+		}
+
+		return false;
+	}
+
+
+	private static boolean matchesAny(List<IRecipe> recipes, InventoryCrafting craftMatrix)
+	{
+		for ( IRecipe recipe : recipes )
+		{
+			if (recipe.matches(craftMatrix, null)) return true;
+		}
+		return false;
+	}
+
+	private static InventoryCrafting createCraftMatrix(NonNullList<ItemStack> craftingGrid)
+	{
+		InventoryCrafting craftMatrix = new InventoryCrafting(EMPTY_CONTAINER, 3, 3);
+		for ( int i = 0 ; i < craftingGrid.size() && i < 9 ; i++ ) craftMatrix.setInventorySlotContents(i, craftingGrid.get(i));
+		return craftMatrix;
+	}
+
+
+	/**
+	 * Generates the fingerprints for a blocked recipe and adds them to the appropriate map.
+	 * @return False if the recipe is of a type which can't be fingerprinted
+	 */
+	private boolean addRecipe(IRecipe recipe)
+	{
+		if (recipe instanceof ShapedRecipes)
+		{
+			ShapedRecipes shapedRecipe = (ShapedRecipes)recipe;
+			return addShapedRecipe(recipe, shapedRecipe.recipeItems, shapedRecipe.recipeWidth, shapedRecipe.recipeHeight);
+		}
+		if (recipe instanceof ShapedOreRecipe)
+		{
+			ShapedOreRecipe shapedRecipe = (ShapedOreRecipe)recipe;
+			return addShapedRecipe(recipe, shapedRecipe.getIngredients(), shapedRecipe.getWidth(), shapedRecipe.getHeight());
+		}
+		if (recipe instanceof ShapelessRecipes)
+		{
+			return addShapelessRecipe(recipe, ((ShapelessRecipes)recipe).recipeItems);
+		}
+		if (recipe instanceof ShapelessOreRecipe)
+		{
+			return addShapelessRecipe(recipe, ((ShapelessOreRecipe)recipe).getIngredients());
+		}
+		return false;
+	}
+
+	private boolean addShapedRecipe(IRecipe recipe, NonNullList<Ingredient> ingredients, int width, int height)
+	{
+		if (width > 3 || height > 3 || ingredients.size() != width * height) return false;
+
+		// lay the ingredients out on a 3x3 grid
+		int[][] slotItems = new int[9][];
+		for ( int i = 0 ; i < 9 ; i++ ) slotItems[i] = new int[] { EMPTY_SLOT };
+		for ( int row = 0 ; row < height ; row++ )
+		{
+			for ( int col = 0 ; col < width ; col++ )
+			{
+				int[] itemIds = getItemIds(ingredients.get(col + row * width));
+				if (itemIds == null) return false;
+				slotItems[(row * 3) + col] = itemIds;
+			}
+		}
+
+		Set<Fingerprint> fingerprints = new LinkedHashSet<Fingerprint>();
+		if (!expandShaped(slotItems, new int[9], 0, fingerprints)) return false;
+
+		for ( Fingerprint fingerprint : fingerprints ) addFingerprint(this.shapedRecipes, fingerprint, recipe);
+		return true;
+	}
+
+	private boolean addShapelessRecipe(IRecipe recipe, NonNullList<Ingredient> ingredients)
+	{
+		if (ingredients.size() > 9) return false;
+
+		int[][] slotItems = new int[ingredients.size()][];
+		for ( int i = 0 ; i < ingredients.size() ; i++ )
+		{
+			int[] itemIds = getItemIds(ingredients.get(i));
+			if (itemIds == null) return false;
+			slotItems[i] = itemIds;
+		}
+
+		Set<Fingerprint> fingerprints = new LinkedHashSet<Fingerprint>();
+		if (!expandShapeless(slotItems, new int[slotItems.length], 0, fingerprints)) return false;
+
+		for ( Fingerprint fingerprint : fingerprints ) addFingerprint(this.shapelessRecipes, fingerprint, recipe);
+		return true;
+	}
+
+	private static void addFingerprint(Map<Fingerprint, List<IRecipe>> map, Fingerprint fingerprint, IRecipe recipe)
+	{
+		List<IRecipe> recipes = map.get(fingerprint);
+		if (recipes == null)
+		{
+			recipes = new ArrayList<IRecipe>(1);
+			map.put(fingerprint, recipes);
+		}
+		if (!recipes.contains(recipe)) recipes.add(recipe);
+	}
+
+
+	/**
+	 * Generates a fingerprint for each combination of the items accepted by the slots of a shaped recipe, along with its mirror image.
+	 */
+	private static boolean expandShaped(int[][] slotItems, int[] grid, int slot, Set<Fingerprint> fingerprints)
+	{
+		if (slot == grid.length)
+		{
+			fingerprints.add(getShapedFingerprint(grid));
+			fingerprints.add(getShapedFingerprint(mirror(grid)));
+			return (fingerprints.size() <= MAX_FINGERPRINTS_PER_RECIPE);
+		}
+		for ( int itemId : slotItems[slot] )
+		{
+			grid[slot] = itemId;
+			if (!expandShaped(slotItems, grid, slot + 1, fingerprints)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Generates a fingerprint for each combination of the items accepted by the ingredients of a shapeless recipe.
+	 */
+	private static boolean expandShapeless(int[][] slotItems, int[] items, int slot, Set<Fingerprint> fingerprints)
+	{
+		if (slot == items.length)
+		{
+			fingerprints.add(getShapelessFingerprint(items));
+			return (fingerprints.size() <= MAX_FINGERPRINTS_PER_RECIPE);
+		}
+		for ( int itemId : slotItems[slot] )
+		{
+			items[slot] = itemId;
+			if (!expandShapeless(slotItems, items, slot + 1, fingerprints)) return false;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Returns the distinct ids of the items accepted by an ingredient, or null if the items it accepts can't be determined.
+	 */
+	private static int[] getItemIds(Ingredient ingredient)
+	{
+		if (ingredient == Ingredient.EMPTY) return new int[] { EMPTY_SLOT };
+
+		ItemStack[] matchingStacks = ingredient.getMatchingStacks();
+		if (matchingStacks.length == 0) return null;
+
+		Set<Integer> itemIds = new LinkedHashSet<Integer>();
+		for ( ItemStack stack : matchingStacks )
+		{
+			itemIds.add(stack.isEmpty() ? EMPTY_SLOT : Item.getIdFromItem(stack.getItem()));
+		}
+
+		int[] result = new int[itemIds.size()];
+		int i = 0;
+		for ( int itemId : itemIds ) result[i++] = itemId;
+		return result;
+	}
+
+	private static int[] mirror(int[] grid)
+	{
+		int[] result = new int[9];
+		for ( int row = 0 ; row < 3 ; row++ )
+		{
+			for ( int col = 0 ; col < 3 ; col++ )
+			{
+				result[(row * 3) + col] = grid[(row * 3) + (2 - col)];
+			}
+		}
+		return result;
+	}
+
+
+	private static Fingerprint getShapedFingerprint(NonNullList<ItemStack> craftingGrid)
+	{
+		int[] grid = new int[9];
+		for ( int i = 0 ; i < 9 ; i++ )
+		{
+			ItemStack stack = (i < craftingGrid.size() ? craftingGrid.get(i) : ItemStack.EMPTY);
+			grid[i] = (stack.isEmpty() ? EMPTY_SLOT : Item.getIdFromItem(stack.getItem()));
+		}
+		return getShapedFingerprint(grid);
+	}
+
+	/**
+	 * Trims the empty rows and columns from the edges of a 3x3 grid of item ids, so that the fingerprint doesn't depend on the position of the recipe in the grid.
+	 */
+	private static Fingerprint getShapedFingerprint(int[] grid)
+	{
+		int minRow = 3, maxRow = -1, minCol = 3, maxCol = -1;
+		for ( int row = 0 ; row < 3 ; row++ )
+		{
+			for ( int col = 0 ; col < 3 ; col++ )
+			{
+				if (grid[(row * 3) + col] != EMPTY_SLOT)
+				{
+					minRow = Math.min(minRow, row); maxRow = Math.max(maxRow, row);
+					minCol = Math.min(minCol, col); maxCol = Math.max(maxCol, col);
+				}
+			}
+		}
+		if (maxRow < 0) return new Fingerprint(new int[] { 0, 0 });
+
+		int width = (maxCol - minCol) + 1;
+		int height = (maxRow - minRow) + 1;
+
+		int[] values = new int[2 + (width * height)];
+		values[0] = width;
+		values[1] = height;
+		for ( int row = 0 ; row < height ; row++ )
+		{
+			for ( int col = 0 ; col < width ; col++ )
+			{
+				values[2 + (row * width) + col] = grid[((minRow + row) * 3) + (minCol + col)];
+			}
+		}
+		return new Fingerprint(values);
+	}
+
+	private static Fingerprint getShapelessFingerprint(NonNullList<ItemStack> craftingGrid)
+	{
+		int[] items = new int[craftingGrid.size()];
+		for ( int i = 0 ; i < craftingGrid.size() ; i++ )
+		{
+			ItemStack stack = craftingGrid.get(i);
+			items[i] = (stack.isEmpty() ? EMPTY_SLOT : Item.getIdFromItem(stack.getItem()));
+		}
+		return getShapelessFingerprint(items);
+	}
+
+	/**
+	 * Sorts the ids of the non-empty slots, so that the fingerprint doesn't depend on the order of the items.
+	 */
+	private static Fingerprint getShapelessFingerprint(int[] items)
+	{
+		int count = 0;
+		for ( int itemId : items ) if (itemId != EMPTY_SLOT) count++;
+
+		int[] values = new int[count];
+		int i = 0;
+		for ( int itemId : items ) if (itemId != EMPTY_SLOT) values[i++] = itemId;
+
+		Arrays.sort(values);
+		return new Fingerprint(values);
+	}
+
+
+	/**
+	 * An immutable array of item ids identifying the layout of a crafting grid
+	 *
+	 */
+	private static class Fingerprint
+	{
+		private final int[] values;
+		private final int hashCode;
+
+		private Fingerprint(int[] values)
+		{
+			this.values = values;
+			this.hashCode = Arrays.hashCode(values);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			return (obj instanceof Fingerprint && Arrays.equals(this.values, ((Fingerprint)obj).values));
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package org.jglrxavpok.mods.decraft.item.uncrafting;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+
+/**
+ * A collection of ItemStacks grouped by item and metadata, used to find the entries in the CraftTweaker block lists
+ * which could match a given stack without comparing the stack against every entry in the list.
+ *
+ */
+public class ItemStackLookup
+{
+
+	private final Map<Item, Map<Integer, Bucket>> buckets = new HashMap<Item, Map<Integer, Bucket>>();
+	private boolean containsEmpty = false;
+
+
+	public ItemStackLookup(Collection<ItemStack> stacks)
+	{
+		for ( ItemStack stack : stacks )
+		{
+			if (stack.isEmpty())
+			{
+				this.containsEmpty = true;
+				continue;
+			}
+
+			Map<Integer, Bucket> itemBuckets = this.buckets.get(stack.getItem());
+			if (itemBuckets == null)
+			{
+				itemBuckets = new HashMap<Integer, Bucket>();
+				this.buckets.put(stack.getItem(), itemBuckets);
+			}
+
+			Bucket bucket = itemBuckets.get(stack.getItemDamage());
+			if (bucket == null)
+			{
+				bucket = new Bucket();
+				itemBuckets.put(stack.getItemDamage(), bucket);
+			}
+
+			// keep the stacks with NBT data separate from those without, as they need to be compared differently
+			if (stack.hasTagCompound()) bucket.taggedStacks.add(stack);
+			else bucket.untaggedStacks.add(stack);
+		}
+	}
+
+
+	/**
+	 * Returns true if the collection this lookup was built from contained an empty stack.
+	 */
+	public boolean containsEmpty()
+	{
+		return this.containsEmpty;
+	}
+
+	/**
+	 * Returns the buckets containing the stacks which are equal to the given stack when compared using ItemStack.areItemsEqualIgnoreDurability.
+	 */
+	public Collection<Bucket> getBuckets(ItemStack stack)
+	{
+		Map<Integer, Bucket> itemBuckets = this.buckets.get(stack.getItem());
+		if (itemBuckets == null) return Collections.<Bucket>emptyList();
+
+		// damageable items match regardless of their damage value
+		if (stack.isItemStackDamageable()) return itemBuckets.values();
+
+		Bucket bucket = itemBuckets.get(stack.getItemDamage());
+		return (bucket != null ? Collections.singletonList(bucket) : Collections.<Bucket>emptyList());
+	}
+
+
+	/**
+	 * The stacks in the lookup which share the same item and metadata
+	 *
+	 */
+	public static class Bucket
+	{
+		public final List<ItemStack> untaggedStacks = new ArrayList<ItemStack>(1);
+		public final List<ItemStack> taggedStacks = new ArrayList<ItemStack>(1);
+	}
+
+}
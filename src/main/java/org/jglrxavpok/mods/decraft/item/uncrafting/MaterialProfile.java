@@ -0,0 +1,180 @@
+package org.jglrxavpok.mods.decraft.item.uncrafting;
+
+import org.jglrxavpok.mods.decraft.common.config.ModConfiguration;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.NonNullList;
+
+
+/**
+ * The unique materials in a crafting grid, with the number of each and the nugget each can be partially returned as,
+ * so that the partial return for a damaged item can be worked out without examining the crafting grid again.
+ *
+ */
+public class MaterialProfile
+{
+
+	// the number of slots in the crafting grid the profile was built from
+	private final int slotCount;
+
+	// for each slot, the index of the material in the slot, or -1 if the slot is empty
+	private final int[] slotMaterials;
+
+	// for each material, the total number of items and the ore dictionary details
+	private final ItemStack[] materialStacks;
+	private final int[] materialAmounts;
+	private final NuggetMap.Material[] materials;
+
+
+	public MaterialProfile(NonNullList<ItemStack> craftingGrid)
+	{
+		this.slotCount = craftingGrid.size();
+		this.slotMaterials = new int[this.slotCount];
+
+		// iterate through the itemstacks in the crafting grid to determine the unique materials used, and the total number of each item
+		ItemStack[] materialStacks = new ItemStack[this.slotCount];
+		int[] materialAmounts = new int[this.slotCount];
+		int materialCount = 0;
+		for ( int i = 0 ; i < this.slotCount ; i++ )
+		{
+			ItemStack recipeStack = craftingGrid.get(i);
+			this.slotMaterials[i] = -1;
+			if (recipeStack.isEmpty()) continue;
+
+			// if an earlier slot contains the same item and metadata, add the items in this slot to that material
+			for ( int j = 0 ; j < materialCount ; j++ )
+			{
+				if (materialStacks[j].getItem() == recipeStack.getItem() && materialStacks[j].getItemDamage() == recipeStack.getItemDamage())
+				{
+					this.slotMaterials[i] = j;
+					materialAmounts[j] += recipeStack.getCount();
+					break;
+				}
+			}
+			// otherwise this is the first slot containing the material
+			if (this.slotMaterials[i] == -1)
+			{
+				this.slotMaterials[i] = materialCount;
+				materialStacks[materialCount] = recipeStack.copy();
+				materialAmounts[materialCount] = recipeStack.getCount();
+				materialCount++;
+			}
+		}
+
+		this.materialStacks = new ItemStack[materialCount];
+		this.materialAmounts = new int[materialCount];
+		this.materials = new NuggetMap.Material[materialCount];
+
+		// check the ore dictionary to see if each material has a matching nugget
+		NuggetMap nuggetMap = NuggetMap.getInstance();
+		for ( int i = 0 ; i < materialCount ; i++ )
+		{
+			this.materialStacks[i] = materialStacks[i];
+			this.materialAmounts[i] = materialAmounts[i];
+			this.materials[i] = nuggetMap.get(materialStacks[i]);
+		}
+	}
+
+
+	/**
+	 * Removes items from a crafting grid with this profile depending on the durability remaining on the item being uncrafted,
+	 * replacing them with nuggets where appropriate.
+	 * @param craftingGrid The crafting grid the profile was built from, which is modified in place
+	 * @param durabilityPercentage The percentage of durability remaining on the item
+	 * @return The modified crafting grid
+	 */
+	public NonNullList<ItemStack> apply(NonNullList<ItemStack> craftingGrid, double durabilityPercentage)
+	{
+		// for each unique material in the crafting recipe...
+		for ( int materialIndex = 0 ; materialIndex < this.materialStacks.length ; materialIndex++ )
+		{
+			NuggetMap.Material material = this.materials[materialIndex];
+			ItemStack nuggetStack = getNuggetStack(materialIndex);
+
+			int amount = this.materialAmounts[materialIndex];
+			int itemCount = 0;
+			int nuggetCount = 0;
+
+			// if the stack contains sticks
+			if (material != null && material.isStick)
+			{
+				// calculate the total number of full items which most closely represent the percentage durability remaining on the item
+				// rounding up to the nearest item
+				itemCount = (int)Math.ceil(amount * (durabilityPercentage / (double)100));
+			}
+			// if the stack contains leather and we should use rabbit hide
+			else if (ModConfiguration.useRabbitHide && material != null && material.isLeather)
+			{
+				// calculate the number of pieces of leather and pieces of rabbit hide which most closely represent the percentage durability remaining on the item
+				// rounding down to the nearest piece of rabbit hide
+				itemCount = (int)Math.floor(amount * (durabilityPercentage / 100));
+				nuggetCount = ((int)Math.floor((amount * 4) * (durabilityPercentage / 100))) - (itemCount * 4);
+			}
+			// if we found a nugget item in the ore dictionary
+			else if (nuggetStack != ItemStack.EMPTY)
+			{
+				// calculate the number of full items and nuggets which most closely represent the percentage durability remaining on the item
+				// rounding down to the nearest nugget
+				itemCount = (int)Math.floor(amount * (durabilityPercentage / (double)100));
+				nuggetCount = ((int)Math.floor((amount * 9) * (durabilityPercentage / (double)100))) - (itemCount * 9);
+			}
+			// if there's no nugget for this item in the ore dictionary
+			else
+			{
+				// calculate the total number of full items which most closely represent the percentage durability remaining on the item
+				// rounding down to the nearest item
+				itemCount = (int)Math.floor(amount * (durabilityPercentage / (double)100));
+			}
+
+			// ensure that at least one nugget is returned regardless of durability
+			if (ModConfiguration.ensureReturn && itemCount == 0 && nuggetCount == 0 && nuggetStack != null) nuggetCount = 1;
+
+			// flip the item count to become items to remove instead of items to leave
+			itemCount = amount - itemCount;
+
+
+			// remove the items from the material's slots in the crafting grid until we've removed the appropriate number.
+			for ( int i = 0 ; i < this.slotCount ; i++ )
+			{
+				if (this.slotMaterials[i] == materialIndex)
+				{
+					if (itemCount > 0)
+					{
+						craftingGrid.set(i, ItemStack.EMPTY);
+						itemCount--;
+					}
+					if (itemCount == 0 && nuggetCount > 0)
+					{
+						craftingGrid.set(i, new ItemStack(nuggetStack.getItem(), nuggetCount, nuggetStack.getItemDamage()));
+						nuggetCount = 0;
+					}
+				}
+			}
+		}
+
+		return craftingGrid;
+	}
+
+	/**
+	 * Returns the percentage of durability remaining on a damageable item.
+	 */
+	public static double getDurabilityPercentage(ItemStack stack)
+	{
+		return 100 - (100 * ((double)stack.getItemDamage() / (double)stack.getMaxDamage()));
+	}
+
+
+	/**
+	 * Returns the stack the material with the given index is partially returned as. This depends on the useRabbitHide setting,
+	 * so it's decided each time rather than when the profile is built.
+	 */
+	private ItemStack getNuggetStack(int index)
+	{
+		NuggetMap.Material material = this.materials[index];
+		if (material == null) return ItemStack.EMPTY;
+		if (material.isStick) return material.nugget;
+		if (ModConfiguration.useRabbitHide && material.isLeather) return new ItemStack(Items.RABBIT_HIDE, 1, 0);
+		return material.nugget;
+	}
+
+}
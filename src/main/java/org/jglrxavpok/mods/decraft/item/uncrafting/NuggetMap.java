@@ -0,0 +1,188 @@
+package org.jglrxavpok.mods.decraft.item.uncrafting;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.ArrayUtils;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.oredict.OreDictionary;
+
+
+/**
+ * A table of the materials which can be partially returned from a damaged item, built from the ore dictionary.
+ * Each material maps to the nugget of the same type (e.g. "ingotIron" -> "nuggetIron"), and records whether it's a stick or a piece of leather,
+ * so that the ore dictionary only has to be searched once rather than for every material of every damaged item.
+ *
+ */
+public class NuggetMap
+{
+
+	private static final String[] ORE_TYPES = { "gem", "ingot" };
+	private static final Pattern LOWER_CASE_PATTERN = Pattern.compile("^[a-z]+");
+
+	private static volatile NuggetMap instance = null;
+
+
+	// materials keyed by item and then metadata, where materials registered with the wildcard value are stored against OreDictionary.WILDCARD_VALUE
+	private final Map<Item, Map<Integer, Material>> materials = new HashMap<Item, Map<Integer, Material>>();
+
+
+	/**
+	 * Returns the current nugget map, building it first if the ore dictionary has changed since it was last built.
+	 */
+	public static NuggetMap getInstance()
+	{
+		NuggetMap map = instance;
+		if (map == null)
+		{
+			map = rebuild();
+		}
+		return map;
+	}
+
+	/**
+	 * Builds the nugget map from the current contents of the ore dictionary.
+	 */
+	public static synchronized NuggetMap rebuild()
+	{
+		NuggetMap map = new NuggetMap();
+		instance = map;
+		return map;
+	}
+
+	/**
+	 * Marks the nugget map as out of date, so that it will be rebuilt before it's next used.
+	 */
+	public static void invalidate()
+	{
+		instance = null;
+	}
+
+
+	private NuggetMap()
+	{
+		int stickOreId = OreDictionary.getOreID("stickWood");
+		int leatherOreId = OreDictionary.getOreID("leather");
+
+		for ( String oreName : OreDictionary.getOreNames() )
+		{
+			for ( ItemStack oreStack : OreDictionary.getOres(oreName, false) )
+			{
+				if (oreStack.isEmpty()) continue;
+
+				Map<Integer, Material> itemMaterials = this.materials.get(oreStack.getItem());
+				if (itemMaterials == null)
+				{
+					itemMaterials = new HashMap<Integer, Material>();
+					this.materials.put(oreStack.getItem(), itemMaterials);
+				}
+				if (itemMaterials.containsKey(oreStack.getItemDamage())) continue;
+
+				// the ore ids for the stack include those registered against the wildcard value as well as the stack's own metadata,
+				// so an entry for a specific metadata value is complete without needing to look at the wildcard entry
+				int[] oreIds = OreDictionary.getOreIDs(oreStack);
+
+				Material material = new Material(getNuggetForOre(oreIds), ArrayUtils.contains(oreIds, stickOreId), ArrayUtils.contains(oreIds, leatherOreId));
+				itemMaterials.put(oreStack.getItemDamage(), material);
+			}
+		}
+	}
+
+
+	/**
+	 * Returns the material details for the given stack, or null if it isn't in the ore dictionary.
+	 */
+	public Material get(ItemStack stack)
+	{
+		Map<Integer, Material> itemMaterials = this.materials.get(stack.getItem());
+		if (itemMaterials == null) return null;
+
+		Material material = itemMaterials.get(stack.getItemDamage());
+		if (material == null) material = itemMaterials.get(OreDictionary.WILDCARD_VALUE);
+		return material;
+	}
+
+	/**
+	 * Returns the nugget for the given material, or an empty stack if there isn't one.
+	 */
+	public ItemStack getNugget(ItemStack stack)
+	{
+		Material material = get(stack);
+		return (material != null ? material.nugget : ItemStack.EMPTY);
+	}
+
+
+	/**
+	 * Checks the ore dictionary for nuggets of the same material type as a gem or an ingot.
+	 * @param oreIds The ore ids of the ItemStack containing ingots or gems we want to match
+	 * @return An ItemStack containing the nugget item if one was found.
+	 */
+	private static ItemStack getNuggetForOre(int[] oreIds)
+	{
+		for ( int oreId : oreIds )
+		{
+			String oreName = OreDictionary.getOreName(oreId); // e.g. "gemDiamond"
+			String[] oreNameParts = oreName.split("(?=\\p{Upper})"); // e.g. { "gem", "Diamond" }
+
+			if ((oreNameParts.length == 1) || (oreNameParts.length == 2 && ArrayUtils.indexOf(ORE_TYPES, oreNameParts[0]) >= 0))
+			{
+				String oreNamePart = oreNameParts[oreNameParts.length - 1];
+				if (LOWER_CASE_PATTERN.matcher(oreNamePart).matches()) oreNamePart = oreNamePart.substring(0, 1).toUpperCase() + oreNamePart.substring(1); // e.g. "leather" -> "Leather"
+
+				String nuggetName = "nugget" + oreNamePart; // e.g. "nuggetDiamond"
+
+				List<ItemStack> nuggetOres = OreDictionary.getOres(nuggetName, false);
+				if (!nuggetOres.isEmpty())
+				{
+					return nuggetOres.get(0);
+				}
+			}
+		}
+		return ItemStack.EMPTY;
+	}
+
+
+	/**
+	 * The details of a material which are used to work out what to return from a damaged item
+	 *
+	 */
+	public static class Material
+	{
+		/** The nugget of the same type as the material, or an empty stack if there isn't one */
+		public final ItemStack nugget;
+		/** Whether the material is registered as "stickWood" */
+		public final boolean isStick;
+		/** Whether the material is registered as "leather" */
+		public final boolean isLeather;
+
+		public Material(ItemStack nugget, boolean isStick, boolean isLeather)
+		{
+			this.nugget = nugget;
+			this.isStick = isStick;
+			this.isLeather = isLeather;
+		}
+	}
+
+
+	@EventBusSubscriber
+	public static class OreDictionaryEventHandler
+	{
+
+		/**
+		 * Any new ore dictionary entry could add a material or a nugget, so the map needs rebuilding,
+		 * and the partial returns found by previous lookups may have changed
+		 */
+		@SubscribeEvent
+		public static void onOreRegister(OreDictionary.OreRegisterEvent event)
+		{
+			invalidate();
+			UncraftingManager.invalidateResultCache();
+		}
+
+	}
+
+}
@@ -0,0 +1,189 @@
+package org.jglrxavpok.mods.decraft.item.uncrafting;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.jglrxavpok.mods.decraft.ModUncrafting;
+import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.RecipeHandlers;
+import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.RecipeHandlers.RecipeHandler;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+import net.minecraft.util.NonNullList;
+import net.minecraftforge.oredict.OreIngredient;
+import net.minecraftforge.oredict.ShapedOreRecipe;
+import net.minecraftforge.oredict.ShapelessOreRecipe;
+
+
+/**
+ * An immutable table of the crafting grids returned by the recipe handlers for each recipe, built once at startup
+ * so that uncrafting lookups don't need to call the recipe handlers again.
+ * Recipes whose crafting grid depends on the input stack, and recipes added after the table was built, aren't included.
+ *
+ */
+public class PrecomputedCraftingGrids
+{
+
+	// the number of recipes each fork join task will handle without splitting itself further
+	private static final int BATCH_SIZE = 64;
+
+	private final Map<IRecipe, NonNullList<ItemStack>> craftingGrids;
+
+
+	private PrecomputedCraftingGrids(Map<IRecipe, NonNullList<ItemStack>> craftingGrids)
+	{
+		this.craftingGrids = Collections.unmodifiableMap(craftingGrids);
+	}
+
+
+	/**
+	 * Returns a copy of the crafting grid stored for the given recipe, or null if the recipe isn't in the table.
+	 */
+	public NonNullList<ItemStack> get(IRecipe recipe)
+	{
+		NonNullList<ItemStack> craftingGrid = this.craftingGrids.get(recipe);
+		if (craftingGrid == null) return null;
+
+		// the grids returned from a lookup are modified later on, so never hand out the stored instances
+		NonNullList<ItemStack> result = NonNullList.<ItemStack>withSize(craftingGrid.size(), ItemStack.EMPTY);
+		for ( int i = 0 ; i < craftingGrid.size() ; i++ )
+		{
+			ItemStack stack = craftingGrid.get(i);
+			result.set(i, (stack.isEmpty() ? ItemStack.EMPTY : stack.copy()));
+		}
+		return result;
+	}
+
+	public int size()
+	{
+		return this.craftingGrids.size();
+	}
+
+
+	/**
+	 * Calls the recipe handler for each of the given recipes, and returns a table of the crafting grids they return.
+	 * The vanilla and Forge recipes made up only of vanilla and ore dictionary ingredients are resolved in parallel.
+	 * Everything else is resolved on the thread this is called from, as other mods' recipes and handlers aren't known to be safe
+	 * to call from several threads at once.
+	 */
+	public static PrecomputedCraftingGrids build(Collection<IRecipe> recipes)
+	{
+		IRecipe[] recipeArray = recipes.toArray(new IRecipe[recipes.size()]);
+		RecipeHandler[] handlerArray = new RecipeHandler[recipeArray.length];
+		NonNullList<ItemStack>[] gridArray = new NonNullList[recipeArray.length];
+		boolean[] parallel = new boolean[recipeArray.length];
+
+		for ( int i = 0 ; i < recipeArray.length ; i++ )
+		{
+			// skip recipes without a handler, and those which can only be resolved once we know the input stack
+			RecipeHandler handler = RecipeHandlers.HANDLERS.get(recipeArray[i].getClass());
+			if (handler == null || handler.isInputSensitive()) continue;
+
+			handlerArray[i] = handler;
+			parallel[i] = isThreadSafe(recipeArray[i]);
+			if (!parallel[i]) gridArray[i] = resolve(recipeArray[i], handler);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool();
+		try
+		{
+			pool.invoke(new BuildTask(recipeArray, handlerArray, parallel, gridArray, 0, recipeArray.length));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		Map<IRecipe, NonNullList<ItemStack>> craftingGrids = new IdentityHashMap<IRecipe, NonNullList<ItemStack>>(recipeArray.length);
+		for ( int i = 0 ; i < recipeArray.length ; i++ )
+		{
+			if (gridArray[i] != null) craftingGrids.put(recipeArray[i], gridArray[i]);
+		}
+		return new PrecomputedCraftingGrids(craftingGrids);
+	}
+
+
+	/**
+	 * Returns true if the recipe is one of the vanilla or Forge recipe classes, and all of its ingredients are vanilla or ore dictionary ingredients,
+	 * so that its handler only reads the ingredients' matching stacks.
+	 * The ore dictionary ingredients fill in their matching stacks the first time they're asked for them, so that's done here before the parallel pass.
+	 */
+	private static boolean isThreadSafe(IRecipe recipe)
+	{
+		Class<?> recipeClass = recipe.getClass();
+		if (recipeClass != ShapedRecipes.class && recipeClass != ShapelessRecipes.class && recipeClass != ShapedOreRecipe.class && recipeClass != ShapelessOreRecipe.class) return false;
+
+		for ( Ingredient ingredient : recipe.getIngredients() )
+		{
+			if (ingredient != Ingredient.EMPTY && ingredient.getClass() != Ingredient.class && ingredient.getClass() != OreIngredient.class) return false;
+		}
+		for ( Ingredient ingredient : recipe.getIngredients() ) ingredient.getMatchingStacks();
+		return true;
+	}
+
+	/**
+	 * Calls the recipe handler for a recipe, returning null if it fails so that the recipe is resolved when it's looked up instead.
+	 */
+	private static NonNullList<ItemStack> resolve(IRecipe recipe, RecipeHandler handler)
+	{
+		try
+		{
+			return handler.getCraftingGrid(recipe);
+		}
+		catch (RuntimeException ex)
+		{
+			ModUncrafting.LOGGER.warn("Unable to precompute the uncrafting grid for " + recipe.getRegistryName(), ex);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Fork join task which resolves the crafting grids for the thread safe recipes in a range, splitting the range in half until it's small enough
+	 *
+	 */
+	private static class BuildTask extends RecursiveAction
+	{
+
+		private final IRecipe[] recipes;
+		private final RecipeHandler[] handlers;
+		private final boolean[] parallel;
+		private final NonNullList<ItemStack>[] craftingGrids;
+		private final int start;
+		private final int end;
+
+		public BuildTask(IRecipe[] recipes, RecipeHandler[] handlers, boolean[] parallel, NonNullList<ItemStack>[] craftingGrids, int start, int end)
+		{
+			this.recipes = recipes;
+			this.handlers = handlers;
+			this.parallel = parallel;
+			this.craftingGrids = craftingGrids;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (this.end - this.start > BATCH_SIZE)
+			{
+				int middle = (this.start + this.end) >>> 1;
+				invokeAll(new BuildTask(this.recipes, this.handlers, this.parallel, this.craftingGrids, this.start, middle),
+					new BuildTask(this.recipes, this.handlers, this.parallel, this.craftingGrids, middle, this.end));
+				return;
+			}
+
+			for ( int i = this.start ; i < this.end ; i++ )
+			{
+				if (this.parallel[i]) this.craftingGrids[i] = resolve(this.recipes[i], this.handlers[i]);
+			}
+		}
+
+	}
+
+}
@@ -2,19 +2,20 @@ package org.jglrxavpok.mods.decraft.item.uncrafting;
 
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
-import org.apache.commons.lang3.ArrayUtils;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jglrxavpok.mods.decraft.ModUncrafting;
 import org.jglrxavpok.mods.decraft.common.config.ModConfiguration;
 import org.jglrxavpok.mods.decraft.common.config.ModJsonConfiguration;
 import org.jglrxavpok.mods.decraft.common.config.ModJsonConfiguration.ItemMapping;
 import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult.ResultType;
-import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.NBTSensitiveRecipeHandlers.INBTSensitiveRecipeHandler;
 import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.RecipeHandlers;
 import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.RecipeHandlers.RecipeHandler;
+import org.jglrxavpok.mods.decraft.stats.UncraftingMetrics;
 import com.google.common.collect.Lists;
 import net.minecraft.enchantment.EnchantmentHelper;
 import net.minecraft.entity.player.EntityPlayer;
@@ -27,7 +28,6 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.NonNullList;
 import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
 import net.minecraftforge.fml.common.registry.ForgeRegistries;
-import net.minecraftforge.oredict.OreDictionary;
 
 
 /**
@@ -43,81 +43,279 @@ public class UncraftingManager
 	public static final List<ItemStack> blockedIngredients = Lists.<ItemStack>newArrayList();
 	public static final List<ItemStack> removedIngredients = Lists.<ItemStack>newArrayList();
 
+	// recipes grouped by output item, so that a lookup only has to consider the recipes which could produce the input item
+	private static volatile Map<Item, List<IRecipe>> recipeIndex = null;
+	private static int recipeIndexRegistrySize = -1;
+
+	// crafting grids found by previous lookups
+	private static final UncraftingResultCache RESULT_CACHE = new UncraftingResultCache();
+
+	// the materials in the crafting grid of each recipe, used to work out the partial return for a damaged item
+	private static final Map<IRecipe, MaterialProfile> MATERIAL_PROFILES = new ConcurrentHashMap<IRecipe, MaterialProfile>();
+
+	// the contents of the CraftTweaker block lists, grouped by item and metadata
+	private static volatile ItemStackLookup blockedItemLookup = null;
+	private static volatile ItemStackLookup blockedIngredientLookup = null;
+	private static volatile ItemStackLookup removedIngredientLookup = null;
+	private static volatile BlockedRecipeMatcher blockedRecipeMatcher = null;
+
+	// the crafting grids for each recipe, resolved at startup if enabled in config
+	private static volatile PrecomputedCraftingGrids precomputedGrids = null;
+
+	// the IRecipe implementations we've already reported as having no handler
+	private static final Set<Class<?>> unknownRecipeClasses = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
 
 	public static void addUncraftingRecipe(IRecipe recipe)
 	{
 		recipes.add(recipe);
+		invalidateRecipeIndex();
 	}
 
 
 	/**
-	 * Performs the recipe lookup, XP cost calculation and other associated checks for an uncrafting operation.
-	 * @param player The player performing the uncrafting operation
-	 * @param itemStack The stack of items being uncrafted
-	 * @return An object containing the details of the operation to be performed
+	 * Builds the index of crafting recipes by output item. Called once the recipe handlers have been initialized,
+	 * and again whenever the recipe index has been invalidated.
 	 */
-	public static UncraftingResult getUncraftingResult(EntityPlayer player, ItemStack itemStack)
+	public static synchronized void buildRecipeIndex()
 	{
+		Map<Item, List<IRecipe>> index = new HashMap<Item, List<IRecipe>>();
 
-		UncraftingResult uncraftingResult = new UncraftingResult();
+		// iterate over all the crafting recipes known to the crafting manager, followed by our own uncrafting recipes,
+		// so that the recipes for each item are stored in the same order in which they'd previously have been found
+		List<IRecipe> recipeList = new ArrayList<IRecipe>(ForgeRegistries.RECIPES.getValues());
+		recipeList.addAll(recipes);
 
-		// get the crafting grids and minimum stack sizes which could result in the input item
-		uncraftingResult.craftingGrids = findMatchingRecipes(itemStack);
-		// determine the xp cost for the uncrafting operation
-		uncraftingResult.experienceCost = getUncraftingXpCost(itemStack);
+		for ( IRecipe recipe : recipeList )
+		{
+			ItemStack recipeOutput = recipe.getRecipeOutput();
+			if (!recipeOutput.isEmpty())
+			{
+				addToRecipeIndex(index, recipeOutput.getItem(), recipe);
+			}
+			// if the recipe doesn't have a fixed output, index it against each of the outputs it's known to produce
+			else
+			{
+				for ( ItemStack possibleOutput : RecipeHandler.getPossibleRecipeOutputs(recipe) )
+				{
+					addToRecipeIndex(index, possibleOutput.getItem(), recipe);
+				}
+			}
+		}
 
-		// if the minimum stack size is greater than the number of items in the slot
-		if (uncraftingResult.getRecipeCount() > 0 && itemStack.getCount() < uncraftingResult.getMinStackSize())
+		recipeIndexRegistrySize = ForgeRegistries.RECIPES.getKeys().size();
+		recipeIndex = index;
+
+		// any crafting grids found using the previous index may now be out of date
+		invalidateResultCache();
+	}
+
+	/**
+	 * Resolves the crafting grid for every known recipe, in parallel where it's safe to, so that later lookups can read them from a table
+	 * rather than calling the recipe handlers. Called once the recipe handlers have been initialized, if enabled in config.
+	 */
+	public static void precomputeCraftingGrids()
+	{
+		long startTime = System.nanoTime();
+
+		List<IRecipe> recipeList = new ArrayList<IRecipe>(ForgeRegistries.RECIPES.getValues());
+		recipeList.addAll(recipes);
+
+		PrecomputedCraftingGrids grids = PrecomputedCraftingGrids.build(recipeList);
+		precomputedGrids = grids;
+
+		ModUncrafting.LOGGER.info("Precomputed " + grids.size() + " of " + recipeList.size() + " uncrafting grids in " + ((System.nanoTime() - startTime) / 1000000L) + "ms");
+	}
+
+	private static void addToRecipeIndex(Map<Item, List<IRecipe>> index, Item item, IRecipe recipe)
+	{
+		List<IRecipe> itemRecipes = index.get(item);
+		if (itemRecipes == null)
 		{
-			// set the result type as "not enough items"
-			uncraftingResult.resultType = ResultType.NOT_ENOUGH_ITEMS;
+			itemRecipes = new ArrayList<IRecipe>(1);
+			index.put(item, itemRecipes);
 		}
-		// if no crafting recipe could be found
-		else if (uncraftingResult.getRecipeCount() == 0)
+		itemRecipes.add(recipe);
+	}
+
+	/**
+	 * Marks the recipe index as out of date, so that it will be rebuilt before the next lookup.
+	 */
+	public static void invalidateRecipeIndex()
+	{
+		recipeIndex = null;
+		invalidateResultCache();
+	}
+
+	/**
+	 * Discards the crafting grids and material profiles found by previous lookups. Called when a change to the configuration or the
+	 * CraftTweaker block lists could change the result of a lookup.
+	 */
+	public static void invalidateResultCache()
+	{
+		RESULT_CACHE.clear();
+		MATERIAL_PROFILES.clear();
+	}
+
+
+	/**
+	 * Marks the lookups built from the CraftTweaker block lists and blocked recipes as out of date, so that they will be rebuilt before they're next used.
+	 */
+	public static void invalidateBlockLists()
+	{
+		blockedItemLookup = null;
+		blockedIngredientLookup = null;
+		removedIngredientLookup = null;
+		blockedRecipeMatcher = null;
+		invalidateResultCache();
+	}
+
+	private static ItemStackLookup getBlockedItemLookup()
+	{
+		ItemStackLookup lookup = blockedItemLookup;
+		if (lookup == null)
 		{
-			// set the result type as "not uncraftable"
-			uncraftingResult.resultType = ResultType.NOT_UNCRAFTABLE;
+			lookup = new ItemStackLookup(blockedItems);
+			blockedItemLookup = lookup;
 		}
-		// if the player is not in creative mode, and doesn't have enough XP levels
-		else if (!player.capabilities.isCreativeMode && player.experienceLevel < uncraftingResult.experienceCost)
+		return lookup;
+	}
+
+	private static ItemStackLookup getBlockedIngredientLookup()
+	{
+		ItemStackLookup lookup = blockedIngredientLookup;
+		if (lookup == null)
 		{
-			// set the result type as "not enough xp"
-			uncraftingResult.resultType = ResultType.NOT_ENOUGH_XP;
+			lookup = new ItemStackLookup(blockedIngredients);
+			blockedIngredientLookup = lookup;
 		}
-		else
+		return lookup;
+	}
+
+	private static ItemStackLookup getRemovedIngredientLookup()
+	{
+		ItemStackLookup lookup = removedIngredientLookup;
+		if (lookup == null)
 		{
-			// check to see if one of more of the items in the crafting recipe have container items
-			for ( ItemStack recipeStack : uncraftingResult.getCraftingGrid() )
-			{
-				if (!recipeStack.isEmpty() && recipeStack.getItem().hasContainerItem(recipeStack)) // the hasContainerItem parameter is usually ignored, but some mods (Immersive Engineering) need it to be there
-				{
-					uncraftingResult.resultType = ResultType.NEED_CONTAINER_ITEMS;
-					break;
-				}
-			}
+			lookup = new ItemStackLookup(removedIngredients);
+			removedIngredientLookup = lookup;
+		}
+		return lookup;
+	}
 
-			// if no container items are present, and all the other checks pass
-			if (uncraftingResult.resultType != ResultType.NEED_CONTAINER_ITEMS)
-			{
-				// the uncrafting operation can be performed
-				uncraftingResult.resultType = ResultType.VALID;
-			}
+	private static BlockedRecipeMatcher getBlockedRecipeMatcher()
+	{
+		BlockedRecipeMatcher matcher = blockedRecipeMatcher;
+		if (matcher == null)
+		{
+			matcher = new BlockedRecipeMatcher(blockedRecipes);
+			blockedRecipeMatcher = matcher;
+		}
+		return matcher;
+	}
 
+	/**
+	 * Returns the recipes which could produce the given item, rebuilding the recipe index first if it's missing or out of date.
+	 */
+	private static List<IRecipe> getCandidateRecipes(Item item)
+	{
+		Map<Item, List<IRecipe>> index = recipeIndex;
+		if (index == null || recipeIndexRegistrySize != ForgeRegistries.RECIPES.getKeys().size())
+		{
+			buildRecipeIndex();
+			index = recipeIndex;
 		}
+
+		List<IRecipe> itemRecipes = index.get(item);
+		return (itemRecipes != null ? itemRecipes : Collections.<IRecipe>emptyList());
+	}
+
+
+	/**
+	 * Performs the recipe lookup, XP cost calculation and other associated checks for an uncrafting operation.
+	 * @param player The player performing the uncrafting operation
+	 * @param itemStack The stack of items being uncrafted
+	 * @return An object containing the details of the operation to be performed
+	 */
+	public static UncraftingResult getUncraftingResult(EntityPlayer player, ItemStack itemStack)
+	{
+		return getUncraftingResult(itemStack, player.capabilities.isCreativeMode, player.experienceLevel);
+	}
+
+	/**
+	 * Performs the recipe lookup, XP cost calculation and other associated checks for an uncrafting operation.
+	 * @param itemStack The stack of items being uncrafted
+	 * @param isCreativeMode Whether the player performing the uncrafting operation is in creative mode
+	 * @param experienceLevel The experience level of the player performing the uncrafting operation
+	 * @return An object containing the details of the operation to be performed
+	 */
+	public static UncraftingResult getUncraftingResult(ItemStack itemStack, boolean isCreativeMode, int experienceLevel)
+	{
+		long startTime = UncraftingMetrics.startTiming();
+		try
+		{
+			return createUncraftingResult(itemStack, isCreativeMode, experienceLevel);
+		}
+		finally
+		{
+			UncraftingMetrics.LOOKUPS.record(startTime);
+		}
+	}
+
+	private static UncraftingResult createUncraftingResult(ItemStack itemStack, boolean isCreativeMode, int experienceLevel)
+	{
+
+		UncraftingResult uncraftingResult = new UncraftingResult();
+
+		// get the crafting grids and minimum stack sizes which could result in the input item
+		uncraftingResult.craftingGrids = getCraftingGrids(itemStack);
+		// determine the xp cost for the uncrafting operation
+		uncraftingResult.experienceCost = getUncraftingXpCost(itemStack);
+
+		// work out the result type from scratch
+		updateResultType(uncraftingResult, itemStack, isCreativeMode, experienceLevel, UncraftingResult.CHANGED_ALL);
+
 		return uncraftingResult;
 	}
 
 
 	public static void recalculateResultType(UncraftingResult uncraftingResult, EntityPlayer player, ItemStack itemStack)
 	{
-		uncraftingResult.resultType = ResultType.INACTIVE;
-		if (itemStack.isEmpty()) return;
+		updateResultType(uncraftingResult, itemStack, player.capabilities.isCreativeMode, player.experienceLevel, UncraftingResult.CHANGED_ALL);
+	}
 
-		// if the minimum stack size is greater than the number of items in the slot
-		if (uncraftingResult.getRecipeCount() > 0 && itemStack.getCount() < uncraftingResult.getMinStackSize())
+	/**
+	 * Updates the result type after some of the things it depends on have changed, only repeating the checks which are affected by the changes.
+	 * @param uncraftingResult The uncrafting result to update
+	 * @param itemStack The stack of items being uncrafted
+	 * @param isCreativeMode Whether the player performing the uncrafting operation is in creative mode
+	 * @param experienceLevel The experience level of the player performing the uncrafting operation
+	 * @param changes The things which have changed, as a combination of the UncraftingResult.CHANGED_* flags
+	 */
+	public static void updateResultType(UncraftingResult uncraftingResult, ItemStack itemStack, boolean isCreativeMode, int experienceLevel, int changes)
+	{
+		// a result which has never been checked needs every check
+		if (!uncraftingResult.evaluated) changes = UncraftingResult.CHANGED_ALL;
+		uncraftingResult.evaluated = true;
+
+		// the minimum stack size depends on the selected grid as well as the number of items in the slot
+		if ((changes & (UncraftingResult.CHANGED_COUNT | UncraftingResult.CHANGED_GRID)) != 0)
 		{
-			// set the result type as "not enough items"
-			uncraftingResult.resultType = ResultType.NOT_ENOUGH_ITEMS;
+			uncraftingResult.enoughItems = (itemStack.getCount() >= uncraftingResult.getMinStackSize());
+		}
+		if ((changes & UncraftingResult.CHANGED_EXPERIENCE) != 0)
+		{
+			uncraftingResult.enoughExperience = (isCreativeMode || experienceLevel >= uncraftingResult.experienceCost);
+		}
+		// the container items only depend on the selected grid, and are cached with the grids
+		if ((changes & UncraftingResult.CHANGED_GRID) != 0)
+		{
+			uncraftingResult.containerItemsNeeded = uncraftingResult.needsContainerItems();
+		}
+
+		if (itemStack.isEmpty())
+		{
+			uncraftingResult.resultType = ResultType.INACTIVE;
 		}
 		// if no crafting recipe could be found
 		else if (uncraftingResult.getRecipeCount() == 0)
@@ -125,31 +323,27 @@ public class UncraftingManager
 			// set the result type as "not uncraftable"
 			uncraftingResult.resultType = ResultType.NOT_UNCRAFTABLE;
 		}
+		// if the minimum stack size is greater than the number of items in the slot
+		else if (!uncraftingResult.enoughItems)
+		{
+			// set the result type as "not enough items"
+			uncraftingResult.resultType = ResultType.NOT_ENOUGH_ITEMS;
+		}
 		// if the player is not in creative mode, and doesn't have enough XP levels
-		else if (!player.capabilities.isCreativeMode && player.experienceLevel < uncraftingResult.experienceCost)
+		else if (!uncraftingResult.enoughExperience)
 		{
 			// set the result type as "not enough xp"
 			uncraftingResult.resultType = ResultType.NOT_ENOUGH_XP;
 		}
+		// if one or more of the items in the crafting recipe have container items
+		else if (uncraftingResult.containerItemsNeeded)
+		{
+			uncraftingResult.resultType = ResultType.NEED_CONTAINER_ITEMS;
+		}
 		else
 		{
-			// check to see if one of more of the items in the crafting recipe have container items
-			for ( ItemStack recipeStack : uncraftingResult.getCraftingGrid() )
-			{
-				if (recipeStack != ItemStack.EMPTY && recipeStack.getItem().hasContainerItem(recipeStack)) // the hasContainerItem parameter is usually ignored, but some mods (Immersive Engineering) need it to be there
-				{
-					uncraftingResult.resultType = ResultType.NEED_CONTAINER_ITEMS;
-					break;
-				}
-			}
-
-			// if no container items are present, and all the other checks pass
-			if (uncraftingResult.resultType != ResultType.NEED_CONTAINER_ITEMS)
-			{
-				// the uncrafting operation can be performed
-				uncraftingResult.resultType = ResultType.VALID;
-			}
-
+			// the uncrafting operation can be performed
+			uncraftingResult.resultType = ResultType.VALID;
 		}
 	}
 
@@ -214,25 +408,57 @@ public class UncraftingManager
 	}
 
 
+	/**
+	 * Returns the available crafting recipes and associated minimum stack sizes which can be used to perform an uncrafting operation,
+	 * using the results of a previous lookup for the same item if there are any.
+	 * @param itemStack The ItemStack containing the target item
+	 * @return A collection of the ItemStack arrays representing the crafting recipe - one element per recipe found
+	 */
+	private static List<Map.Entry<NonNullList<ItemStack>,Integer>> getCraftingGrids(ItemStack itemStack)
+	{
+		// if uncrafting of this item is disabled either in config or via crafttweaker, return an empty list
+		if (isOutputBlocked(itemStack)) return new ArrayList<Map.Entry<NonNullList<ItemStack>,Integer>>();
+
+		// if the item's recipes are matched using private field values, don't use the cache as those values aren't part of the cache key
+		ItemMapping mapping = ModJsonConfiguration.ITEM_MAPPINGS.get(itemStack);
+		if (mapping != null && mapping.matchField == true)
+		{
+			UncraftingMetrics.increment(UncraftingMetrics.CACHE_MISSES, 1);
+			return findMatchingRecipes(itemStack);
+		}
+
+		// the crafting grids only depend on the damage of the item if we're going to do a partial material return
+		boolean damageSensitive = (ModConfiguration.uncraftMethod == UncraftingMethod.JGLRXAVPOK && itemStack.isItemStackDamageable() && itemStack.isItemDamaged());
+		UncraftingResultCache.CacheKey key = new UncraftingResultCache.CacheKey(itemStack, damageSensitive);
+
+		List<Map.Entry<NonNullList<ItemStack>,Integer>> list = RESULT_CACHE.get(key);
+		if (list == null)
+		{
+			UncraftingMetrics.increment(UncraftingMetrics.CACHE_MISSES, 1);
+			list = findMatchingRecipes(itemStack);
+			RESULT_CACHE.put(key, list);
+		}
+		else UncraftingMetrics.increment(UncraftingMetrics.CACHE_HITS, 1);
+		return list;
+	}
+
+
 	/**
 	 * Returns the available crafting recipes and associated minimum stack sizes which can be used to perform an uncrafting operation
 	 * @param itemStack The ItemStack containing the target item
 	 * @return A collection of the ItemStack arrays representing the crafting recipe - one element per recipe found
 	 */
-	private static List<Map.Entry<NonNullList<ItemStack>,Integer>> findMatchingRecipes(ItemStack itemStack)
+	static List<Map.Entry<NonNullList<ItemStack>,Integer>> findMatchingRecipes(ItemStack itemStack)
 	{
 		// initialize a list of tuples to hold the crafting grid and stack sizes
 		List<Map.Entry<NonNullList<ItemStack>,Integer>> list = new ArrayList<Map.Entry<NonNullList<ItemStack>,Integer>>();
 
-		// if uncrafting of this item is disabled either in config or via crafttweaker, return the empty list
-		if (isOutputBlocked(itemStack)) return list;
-
-		// iterate over all the crafting recipes known to the crafting manager
-		List<IRecipe> recipeList = new ArrayList<IRecipe>(ForgeRegistries.RECIPES.getValues());
-		recipeList.addAll(recipes);
-
-		for ( IRecipe recipe : recipeList )
+		// iterate over the crafting recipes which could produce the item
+		int recipesScanned = 0;
+		for ( IRecipe recipe : getCandidateRecipes(itemStack.getItem()) )
 		{
+			recipesScanned++;
+
 			// if the current recipe can be used to craft the item
 			ItemStack recipeOutput = recipe.getRecipeOutput();
 			if (recipeOutput.isEmpty()) recipeOutput = RecipeHandler.getPossibleRecipeOutput(recipe, itemStack);
@@ -258,12 +484,10 @@ public class UncraftingManager
 				RecipeHandler handler = RecipeHandlers.HANDLERS.get(recipe.getClass());
 				if (handler != null)
 				{
-					// if the recipe is nbt sensitive, copy the input itemstack into the recipe handler
-					if (handler instanceof INBTSensitiveRecipeHandler) ((INBTSensitiveRecipeHandler)handler).setInputStack(itemStack.copy());
-
 					// get the minimum stack size required to uncraft, and the itemstacks that comprise the crafting ingredients
+					// (the input stack is passed to the handler, as the crafting grid for nbt sensitive recipes depends on it)
 					int minStackSize = recipeOutput.getCount();
-					NonNullList<ItemStack> craftingGrid = handler.getCraftingGrid(recipe);
+					NonNullList<ItemStack> craftingGrid = getCraftingGrid(handler, recipe, itemStack);
 
 					if (!craftingGrid.isEmpty())
 					{
@@ -280,7 +504,7 @@ public class UncraftingManager
 						// if we're doing a partial material return on a damaged item, remove items from the crafting grid as appropriate
 						if (ModConfiguration.uncraftMethod == UncraftingMethod.JGLRXAVPOK && itemStack.isItemStackDamageable() && itemStack.isItemDamaged())
 						{
-							craftingGrid = removeItemsFromOutputByDamage(itemStack, craftingGrid);
+							craftingGrid = getMaterialProfile(handler, recipe, craftingGrid).apply(craftingGrid, MaterialProfile.getDurabilityPercentage(itemStack));
 						}
 
 						// add the stack size and the crafting grid to the results list
@@ -298,15 +522,32 @@ public class UncraftingManager
 						}
 					}
 				}
-				// if we couldn't find a handler class for this IRecipe implementation, write some details to the log for debugging.
-				else ModUncrafting.LOGGER.error("findMatchingRecipes :: Unknown IRecipe implementation " + recipe.getClass().getCanonicalName() + " for item " + itemStack.getItem().getRegistryName());
+				// if we couldn't find a handler class for this IRecipe implementation, write some details to the log for debugging
+				// (only the first time we see the class, as it would otherwise be logged again on every lookup)
+				else if (unknownRecipeClasses.add(recipe.getClass())) ModUncrafting.LOGGER.error("findMatchingRecipes :: Unknown IRecipe implementation " + recipe.getClass().getCanonicalName() + " for item " + itemStack.getItem().getRegistryName());
 			}
 		}
 
+		UncraftingMetrics.increment(UncraftingMetrics.RECIPES_SCANNED, recipesScanned);
 		return list;
 	}
 
 
+	/**
+	 * Returns the crafting grid for a recipe, from the precomputed table if it's there, or from the recipe handler if it isn't.
+	 */
+	private static NonNullList<ItemStack> getCraftingGrid(RecipeHandler handler, IRecipe recipe, ItemStack itemStack)
+	{
+		PrecomputedCraftingGrids grids = precomputedGrids;
+		if (grids != null && !handler.isInputSensitive())
+		{
+			NonNullList<ItemStack> craftingGrid = grids.get(recipe);
+			if (craftingGrid != null) return craftingGrid;
+		}
+		return handler.getCraftingGrid(recipe, itemStack);
+	}
+
+
 	private static boolean areItemStackSubTagsEqual(ItemStack stackA, ItemStack stackB, String tagName)
 	{
 		final String regex = "(?<=\\d+)[bdfsL](?=[,}])"; // type indicators ("b", "f", etc) preceded by digits and followed by "," or "}"
@@ -364,148 +605,76 @@ public class UncraftingManager
 	 * @param craftingGrid The unmodified crafting recipe of the damageable item
 	 * @return The modified crafting recipe with some ingredients removed
 	 */
-	private static NonNullList<ItemStack> removeItemsFromOutputByDamage(ItemStack stack, NonNullList<ItemStack> craftingGrid)
+	static NonNullList<ItemStack> removeItemsFromOutputByDamage(ItemStack stack, NonNullList<ItemStack> craftingGrid)
 	{
-		// calculate the percentage durability remaining on the item
-		double damagePercentage = (100 * ((double)stack.getItemDamage() / (double)stack.getMaxDamage()));
-		double durabilityPercentage = 100 - (100 * ((double)stack.getItemDamage() / (double)stack.getMaxDamage()));
-
-		// iterate through the itemstacks in the crafting recipe to determine the unique materials used, and the total number of each item
-		HashMap<String, Map.Entry<ItemStack,Integer>> materials = new HashMap<String, Map.Entry<ItemStack,Integer>>();
-		for ( ItemStack recipeStack : craftingGrid )
-		{
-			if (!recipeStack.isEmpty())
-			{
-				// get the unique identifier string for the item in the current stack, and append a metadata value if appropriate
-				String key = Item.REGISTRY.getNameForObject(recipeStack.getItem()).toString();
-				if (recipeStack.getItemDamage() != 0) key += "," + recipeStack.getItemDamage();
+		return new MaterialProfile(craftingGrid).apply(craftingGrid, MaterialProfile.getDurabilityPercentage(stack));
+	}
 
-				// if the map already contains a stack for this item, increment the number of items in the map
-				if (materials.containsKey(key))
-				{
-					materials.get(key).setValue(materials.get(key).getValue() + recipeStack.getCount());
-				}
-				// if the map doesn't already contain a stack for this item, add the stack and the number of items in the stack
-				else
-				{
-					Map.Entry<ItemStack,Integer> value = new AbstractMap.SimpleEntry<ItemStack,Integer>(recipeStack.copy(), recipeStack.getCount());
-					value.getKey().setCount(1);
-					materials.put(key, value);
-				}
-			}
-		}
+	/**
+	 * Returns the material profile for the crafting grid of a recipe, reusing the profile built by a previous lookup if the grid doesn't depend on the input stack.
+	 * @param craftingGrid The crafting grid of the recipe, after any ingredients blocked by CraftTweaker have been removed
+	 */
+	private static MaterialProfile getMaterialProfile(RecipeHandler handler, IRecipe recipe, NonNullList<ItemStack> craftingGrid)
+	{
+		if (handler.isInputSensitive()) return new MaterialProfile(craftingGrid);
 
-		// for each unique material in the crafting recipe...
-		for ( String key : materials.keySet())
+		MaterialProfile profile = MATERIAL_PROFILES.get(recipe);
+		if (profile == null)
 		{
-			// get the itemstack of the material from the materials map
-			ItemStack materialStack = materials.get(key).getKey();
-
-			// check the ore dictionary to see if this material has a matching nugget
-			ItemStack nuggetStack = getNuggetForOre(materialStack);
-
-
-			int amount = materials.get(key).getValue();
-			int itemCount = 0;
-			int nuggetCount = 0;
-
-			// if the stack contains sticks
-			if (ArrayUtils.contains(OreDictionary.getOreIDs(materialStack), OreDictionary.getOreID("stickWood")))
-			{
-				// calculate the total number of full items which most closely represent the percentage durability remaining on the item
-				// rounding up to the nearest item
-				itemCount = (int)Math.ceil(amount * (durabilityPercentage / (double)100));
-			}
-			// if the stack contains leather and we should use rabbit hide
-			else if (ModConfiguration.useRabbitHide && ArrayUtils.contains(OreDictionary.getOreIDs(materialStack), OreDictionary.getOreID("leather")))
-			{
-				nuggetStack = new ItemStack(Items.RABBIT_HIDE, 1, 0);
-
-				// calculate the number of pieces of leather and pieces of rabbit hide which most closely represent the percentage durability remaining on the item
-				// rounding down to the nearest piece of rabbit hide
-				itemCount = (int)Math.floor(amount * (durabilityPercentage / 100));
-				nuggetCount = ((int)Math.floor((amount * 4) * (durabilityPercentage / 100))) - (itemCount * 4);
-			}
-			// if we found a nugget item in the ore dictionary
-			else if (nuggetStack != ItemStack.EMPTY)
-			{
-				// calculate the number of full items and nuggets which most closely represent the percentage durability remaining on the item
-				// rounding down to the nearest nugget
-				itemCount = (int)Math.floor(amount * (durabilityPercentage / (double)100));
-				nuggetCount = ((int)Math.floor((amount * 9) * (durabilityPercentage / (double)100))) - (itemCount * 9);
-			}
-			// if there's no nugget for this item in the ore dictionary
-			else
-			{
-				// calculate the total number of full items which most closely represent the percentage durability remaining on the item
-				// rounding down to the nearest item
-				itemCount = (int)Math.floor(amount * (durabilityPercentage / (double)100));
-			}
-
-			// ensure that at least one nugget is returned regardless of durability
-			if (ModConfiguration.ensureReturn && itemCount == 0 && nuggetCount == 0 && nuggetStack != null) nuggetCount = 1;
-
-			// flip the item count to become items to remove instead of items to leave
-			itemCount = amount - itemCount;
-
-
-			// remove the items from the crafting grid until we've removed the appropriate number.
-			for ( int i = 0 ; i < craftingGrid.size() ; i++ )
-			{
-				if (craftingGrid.get(i) != null && craftingGrid.get(i).isItemEqual(materialStack))
-				{
-					if (itemCount > 0)
-					{
-						craftingGrid.set(i, ItemStack.EMPTY);
-						itemCount--;
-					}
-					if (itemCount == 0 && nuggetCount > 0)
-					{
-						craftingGrid.set(i, new ItemStack(nuggetStack.getItem(), nuggetCount, nuggetStack.getItemDamage()));
-						nuggetCount = 0;
-					}
-				}
-			}
-
+			profile = new MaterialProfile(craftingGrid);
+			MATERIAL_PROFILES.put(recipe, profile);
 		}
-
-		return craftingGrid;
+		return profile;
 	}
 
 
 	/**
-	 * Helper method to check the ore dictionary for nuggets of the same material type as a gem or an ingot.
-	 * @param oreStack The ItemStack containing ingots or gems we want to match
-	 * @return An ItemStack containing the nugget item if one was found.
+	 * Returns the items produced by uncrafting with a crafting grid a number of times, with identical items from different slots combined
+	 * and split into stacks no larger than the item's maximum stack size.
+	 * @param craftingGrid The crafting grid of the selected recipe
+	 * @param multiplier The number of times the recipe is uncrafted
 	 */
-	private static ItemStack getNuggetForOre(ItemStack oreStack)
+	public static List<ItemStack> getOutputStacks(NonNullList<ItemStack> craftingGrid, int multiplier)
 	{
-		String[] oreTypes = { "gem", "ingot" };
-
-		int[] oreIds = OreDictionary.getOreIDs(oreStack);
-		for ( int oreId : oreIds )
+		// combine the items from every slot in the crafting grid which are the same
+		List<ItemStack> combinedStacks = new ArrayList<ItemStack>();
+		for ( ItemStack recipeStack : craftingGrid )
 		{
-			String oreName = OreDictionary.getOreName(oreId); // e.g. "gemDiamond"
-			String[] oreNameParts = oreName.split("(?=\\p{Upper})"); // e.g. { "gem", "Diamond" }
+			if (recipeStack.isEmpty()) continue;
 
-			if ((oreNameParts.length == 1) || (oreNameParts.length == 2 && ArrayUtils.indexOf(oreTypes, oreNameParts[0]) >= 0))
+			ItemStack combinedStack = null;
+			for ( ItemStack stack : combinedStacks )
 			{
-				String oreNamePart = oreNameParts[oreNameParts.length - 1];
-				if (Pattern.matches("^[a-z]+", oreNamePart)) oreNamePart = oreNamePart.substring(0, 1).toUpperCase() + oreNamePart.substring(1); // e.g. "leather" -> "Leather"
-
-				String nuggetName = "nugget" + oreNamePart; // e.g. "nuggetDiamond"
-
-				List<ItemStack> nuggetOres = OreDictionary.getOres(nuggetName);
-				if (!nuggetOres.isEmpty())
+				if (ItemStack.areItemsEqual(stack, recipeStack) && ItemStack.areItemStackTagsEqual(stack, recipeStack))
 				{
-					ItemStack nuggetOre = nuggetOres.get(0);
-					return nuggetOre;
+					combinedStack = stack;
+					break;
 				}
+			}
 
+			if (combinedStack == null)
+			{
+				combinedStack = recipeStack.copy();
+				combinedStack.setCount(0);
+				combinedStacks.add(combinedStack);
 			}
+			combinedStack.grow(recipeStack.getCount() * multiplier);
+		}
 
+		// split the combined items into full stacks
+		List<ItemStack> outputStacks = new ArrayList<ItemStack>();
+		for ( ItemStack combinedStack : combinedStacks )
+		{
+			int remaining = combinedStack.getCount();
+			while (remaining > 0)
+			{
+				ItemStack stack = combinedStack.copy();
+				stack.setCount(Math.min(remaining, stack.getMaxStackSize()));
+				remaining -= stack.getCount();
+				outputStacks.add(stack);
+			}
 		}
-		return ItemStack.EMPTY;
+		return outputStacks;
 	}
 
 
@@ -524,34 +693,31 @@ public class UncraftingManager
 
 	private static boolean isRecipeBlocked(NonNullList<ItemStack> craftingGrid)
 	{
-		InventoryCrafting craftMatrix = new InventoryCrafting(craftingGrid);
-		for (IRecipe irecipe : blockedRecipes)
-		{
-			if (irecipe.matches(craftMatrix, null)) return true;
-		}
-		return false;
+		return getBlockedRecipeMatcher().matches(craftingGrid);
 	}
 
 	private static boolean isOutputBlocked(ItemStack stack)
 	{
 		// first check to see if the output is blocked by config
-		String registryName = stack.getItem().getRegistryName().toString();
-		if (ArrayUtils.indexOf(ModConfiguration.excludedItems, registryName) >= 0) return true;
-		if (ArrayUtils.indexOf(ModConfiguration.excludedItems, registryName + "," + Integer.toString(stack.getItemDamage())) >= 0) return true;
+		if (ModConfiguration.isItemExcluded(stack)) return true;
 
 		// then check to see if it's blocked by crafttweaker
-		for ( ItemStack stackB : blockedItems )
+		ItemStackLookup lookup = getBlockedItemLookup();
+		if (stack.isEmpty()) return lookup.containsEmpty();
+
+		// for each group of blocked stacks where the items are equal...
+		for ( ItemStackLookup.Bucket bucket : lookup.getBuckets(stack) )
 		{
-			// if the items are equal...
-			if (ItemStack.areItemsEqualIgnoreDurability(stack, stackB))
+			// if a blocked stack doesn't have an NBT tag, consider this a match regardless of the NBT data on the test stack.
+			if (!bucket.untaggedStacks.isEmpty())
 			{
-				// if the blocked stack doesn't have an NBT tag, consider this a match regardless of the NBT data on the test stack.
-				// if it does, then it's a match if the two tags match.
-				if (!stackB.hasTagCompound())
-				{
-					return true;
-				}
-				else if (ItemStack.areItemStackTagsEqual(stack, stackB))
+				return true;
+			}
+
+			// if it does, then it's a match if the two tags match.
+			for ( ItemStack stackB : bucket.taggedStacks )
+			{
+				if (ItemStack.areItemStackTagsEqual(stack, stackB))
 				{
 					return true;
 				}
@@ -572,11 +738,7 @@ public class UncraftingManager
 
 	private static boolean isIngredientBlocked(ItemStack stack)
 	{
-		for ( ItemStack stackB : blockedIngredients )
-		{
-			if (ItemStack.areItemsEqualIgnoreDurability(stack, stackB) && ItemStack.areItemStackTagsEqual(stack, stackB)) return true;
-		}
-		return false;
+		return containsItemStack(getBlockedIngredientLookup(), stack);
 	}
 
 	private static boolean recipeContainsBlockedItems(NonNullList<ItemStack> craftingGrid)
@@ -590,38 +752,25 @@ public class UncraftingManager
 
 	private static boolean shouldIngredientBeRemoved(ItemStack stack)
 	{
-		for ( ItemStack stackB : removedIngredients )
-		{
-			if (ItemStack.areItemsEqualIgnoreDurability(stack, stackB) && ItemStack.areItemStackTagsEqual(stack, stackB)) return true;
-		}
-		return false;
+		return containsItemStack(getRemovedIngredientLookup(), stack);
 	}
 
-
 	/**
-	 * extended InventoryCrafting class used for comparing recipe outputs
-	 *
+	 * Checks whether a lookup contains a stack which is equal to the given stack, including its NBT data.
 	 */
-	private static class InventoryCrafting extends net.minecraft.inventory.InventoryCrafting
+	private static boolean containsItemStack(ItemStackLookup lookup, ItemStack stack)
 	{
+		if (stack.isEmpty()) return lookup.containsEmpty();
 
-		public InventoryCrafting(NonNullList<ItemStack> craftingGrid)
+		for ( ItemStackLookup.Bucket bucket : lookup.getBuckets(stack) )
 		{
-			super(null, 3, 3);
-			for ( int i = 0 ; i < craftingGrid.size() ; i++ ) this.setInventorySlotContents(i, craftingGrid.get(i));
+			// a stack with an NBT tag can only be equal to another stack with an NBT tag, and vice versa
+			for ( ItemStack stackB : (stack.hasTagCompound() ? bucket.taggedStacks : bucket.untaggedStacks) )
+			{
+				if (ItemStack.areItemStackTagsEqual(stack, stackB)) return true;
+			}
 		}
-
-	    @Override
-		public void setInventorySlotContents(int index, ItemStack stack)
-	    {
-			// the super class will throw an exception when attempting to call "this.eventHandler.onCraftMatrixChanged(this);", but we don't care
-	    	try
-	    	{
-	    		super.setInventorySlotContents(index, stack);
-	    	}
-	    	catch(NullPointerException ex){}
-	    }
-
+		return false;
 	}
 
 
@@ -13,6 +13,16 @@ import net.minecraft.util.NonNullList;
 public class UncraftingResult
 {
 
+	/** The input stack's size has changed */
+	public static final int CHANGED_COUNT = 1;
+	/** The player's experience level or the experience cost has changed, such as when books are added or removed */
+	public static final int CHANGED_EXPERIENCE = 2;
+	/** A different crafting grid has been selected */
+	public static final int CHANGED_GRID = 4;
+	/** Everything needs to be checked */
+	public static final int CHANGED_ALL = CHANGED_COUNT | CHANGED_EXPERIENCE | CHANGED_GRID;
+
+
 	public ResultType resultType;
 	public List<Map.Entry<NonNullList<ItemStack>,Integer>> craftingGrids;
 	public int experienceCost;
@@ -27,6 +37,19 @@ public class UncraftingResult
 	}
 
 
+	// the outcome of each check the result type depends on, as of the last time the result type was worked out,
+	// so that only the checks affected by a change need to be made again
+	boolean evaluated = false;
+	boolean enoughItems = false;
+	boolean enoughExperience = false;
+	boolean containerItemsNeeded = false;
+
+	// for each crafting grid, a bitmask of the slots containing items which leave container items behind,
+	// worked out the first time it's needed for the current list of crafting grids, and again after setCraftingGridStack
+	private List<Map.Entry<NonNullList<ItemStack>,Integer>> containerItemGrids = null;
+	private int[] containerItemSlots = null;
+
+
 //	public ResultType getResultType()
 //	{
 //		return resultType;
@@ -48,6 +71,59 @@ public class UncraftingResult
 	}
 
 
+	/**
+	 * Replaces the stack in a slot of the selected crafting grid, and forgets the container item slots worked out for the old stack.
+	 */
+	public void setCraftingGridStack(int index, ItemStack stack)
+	{
+		getCraftingGrid().set(index, stack);
+		containerItemGrids = null;
+	}
+
+	/**
+	 * Returns a bitmask of the slots in the selected crafting grid which contain items that leave container items behind.
+	 */
+	public int getContainerItemSlots()
+	{
+		if (craftingGrids.size() == 0) return 0;
+
+		if (containerItemGrids != craftingGrids || containerItemSlots.length != craftingGrids.size())
+		{
+			containerItemGrids = craftingGrids;
+			containerItemSlots = new int[craftingGrids.size()];
+			for ( int grid = 0 ; grid < craftingGrids.size() ; grid++ )
+			{
+				NonNullList<ItemStack> craftingGrid = craftingGrids.get(grid).getKey();
+				for ( int index = 0 ; index < craftingGrid.size() ; index++ )
+				{
+					ItemStack recipeStack = craftingGrid.get(index);
+					if (!recipeStack.isEmpty() && recipeStack.getItem().hasContainerItem(recipeStack)) // the hasContainerItem parameter is usually ignored, but some mods (Immersive Engineering) need it to be there
+					{
+						containerItemSlots[grid] |= (1 << index);
+					}
+				}
+			}
+		}
+		return containerItemSlots[selectedCraftingGrid];
+	}
+
+	/**
+	 * Returns true if the given slot in the selected crafting grid contains an item which leaves a container item behind.
+	 */
+	public boolean hasContainerItem(int index)
+	{
+		return (getContainerItemSlots() & (1 << index)) != 0;
+	}
+
+	/**
+	 * Returns true if any of the items in the selected crafting grid leave container items behind.
+	 */
+	public boolean needsContainerItems()
+	{
+		return getContainerItemSlots() != 0;
+	}
+
+
 //	public int getExperienceCost()
 //	{
 //		return experienceCost;
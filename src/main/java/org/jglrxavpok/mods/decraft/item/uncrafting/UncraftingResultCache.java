@@ -0,0 +1,142 @@
+package org.jglrxavpok.mods.decraft.item.uncrafting;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.NonNullList;
+
+
+/**
+ * A bounded, least recently used cache of the crafting grids which were found for an input item,
+ * so that repeated lookups for the same item don't need to search through the recipes again.
+ *
+ */
+public class UncraftingResultCache
+{
+
+	private static final int MAX_ENTRIES = 512;
+
+	private final Map<CacheKey, List<Map.Entry<NonNullList<ItemStack>,Integer>>> entries = new LinkedHashMap<CacheKey, List<Map.Entry<NonNullList<ItemStack>,Integer>>>(64, 0.75F, true)
+	{
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<CacheKey, List<Map.Entry<NonNullList<ItemStack>,Integer>>> eldest)
+		{
+			return this.size() > MAX_ENTRIES;
+		}
+	};
+
+
+	/**
+	 * Returns a copy of the crafting grids stored against the given key, or null if there aren't any.
+	 */
+	public synchronized List<Map.Entry<NonNullList<ItemStack>,Integer>> get(CacheKey key)
+	{
+		List<Map.Entry<NonNullList<ItemStack>,Integer>> craftingGrids = this.entries.get(key);
+		return (craftingGrids != null ? copyCraftingGrids(craftingGrids) : null);
+	}
+
+	/**
+	 * Stores a copy of the crafting grids against a copy of the given key.
+	 */
+	public synchronized void put(CacheKey key, List<Map.Entry<NonNullList<ItemStack>,Integer>> craftingGrids)
+	{
+		this.entries.put(key.copy(), copyCraftingGrids(craftingGrids));
+	}
+
+	public synchronized void clear()
+	{
+		this.entries.clear();
+	}
+
+
+	/**
+	 * Copies a collection of crafting grids, including the ItemStacks they contain, so that changes made to the grids
+	 * returned from a lookup (e.g. by the uncrafting result inventory) don't affect the cached values.
+	 */
+	private static List<Map.Entry<NonNullList<ItemStack>,Integer>> copyCraftingGrids(List<Map.Entry<NonNullList<ItemStack>,Integer>> craftingGrids)
+	{
+		List<Map.Entry<NonNullList<ItemStack>,Integer>> result = new ArrayList<Map.Entry<NonNullList<ItemStack>,Integer>>(craftingGrids.size());
+		for ( Map.Entry<NonNullList<ItemStack>,Integer> entry : craftingGrids )
+		{
+			NonNullList<ItemStack> craftingGrid = NonNullList.<ItemStack>withSize(entry.getKey().size(), ItemStack.EMPTY);
+			for ( int i = 0 ; i < craftingGrid.size() ; i++ )
+			{
+				ItemStack stack = entry.getKey().get(i);
+				craftingGrid.set(i, (stack.isEmpty() ? ItemStack.EMPTY : stack.copy()));
+			}
+			result.add(new AbstractMap.SimpleEntry<NonNullList<ItemStack>,Integer>(craftingGrid, entry.getValue()));
+		}
+		return result;
+	}
+
+
+	/**
+	 * Identifies an input item by the properties which can affect the crafting grids found for it.
+	 *
+	 */
+	public static class CacheKey
+	{
+
+		private final Item item;
+		private final int damage;
+		private final NBTTagCompound tag;
+		private final int hashCode;
+
+		/**
+		 * Creates a key for looking up the given stack. The key refers to the stack's NBT tag rather than copying it,
+		 * so it's only valid as long as the stack isn't changed. The cache stores a copy of the key when it's used to add an entry.
+		 * @param stack The stack of items being uncrafted
+		 * @param damageSensitive Whether the crafting grids depend on the damage of the item, rather than just the metadata
+		 */
+		public CacheKey(ItemStack stack, boolean damageSensitive)
+		{
+			this.item = stack.getItem();
+			this.damage = (damageSensitive || !stack.isItemStackDamageable() ? stack.getItemDamage() : 0);
+			this.tag = stack.getTagCompound();
+
+			int hashCode = this.item.hashCode();
+			hashCode = (31 * hashCode) + this.damage;
+			hashCode = (31 * hashCode) + (this.tag != null ? this.tag.hashCode() : 0);
+			this.hashCode = hashCode;
+		}
+
+		private CacheKey(Item item, int damage, NBTTagCompound tag, int hashCode)
+		{
+			this.item = item;
+			this.damage = damage;
+			this.tag = tag;
+			this.hashCode = hashCode;
+		}
+
+		/**
+		 * Returns a copy of the key with its own copy of the NBT tag, which is safe to store.
+		 */
+		private CacheKey copy()
+		{
+			return (this.tag != null ? new CacheKey(this.item, this.damage, this.tag.copy(), this.hashCode) : this);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this) return true;
+			if (!(obj instanceof CacheKey)) return false;
+
+			CacheKey key = (CacheKey)obj;
+			return (this.item == key.item && this.damage == key.damage && (this.tag == null ? key.tag == null : this.tag.equals(key.tag)));
+		}
+
+	}
+
+}
@@ -0,0 +1,190 @@
+package org.jglrxavpok.mods.decraft.item.uncrafting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jglrxavpok.mods.decraft.common.config.ModConfiguration;
+import org.jglrxavpok.mods.decraft.stats.UncraftingMetrics;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+
+/**
+ * Runs the uncrafting operations of automatic uncrafting tables within a fixed amount of time each server tick.
+ * Tables with work to do are queued, and the queue is drained at the end of each tick until the configured budget has been used,
+ * with any remaining work carried over to the next tick. Queued work is grouped by owner, and the owners take turns,
+ * so that one player's tables can't hold up everyone else's.
+ * Only used from the server thread.
+ *
+ */
+public class UncraftingScheduler
+{
+
+	/**
+	 * A source of uncrafting operations, such as an automatic uncrafting table
+	 *
+	 */
+	public interface Job
+	{
+		/**
+		 * Performs a single uncrafting operation.
+		 * @return True if there's more work to do, or false if the job should be removed from the queue until it's scheduled again
+		 */
+		boolean runOperation();
+
+		/**
+		 * Returns false if the job can no longer run, for example because its table has been removed or unloaded.
+		 */
+		boolean isJobValid();
+
+		/**
+		 * Returns the key which the job's turns are shared with, such as the UUID of the player who owns it.
+		 */
+		Object getOwnerKey();
+	}
+
+
+	// queued jobs grouped by owner, with the owners in the order in which they'll next get a turn
+	private static final Map<Object, ArrayDeque<Job>> QUEUES = new LinkedHashMap<Object, ArrayDeque<Job>>();
+
+	// every job which is queued, including those waiting for the next tick
+	private static final Set<Job> QUEUED_JOBS = Collections.newSetFromMap(new IdentityHashMap<Job, Boolean>());
+
+	// jobs which have used up their operations for this tick, and will be queued again at the start of the next
+	private static final List<Job> DEFERRED_JOBS = new ArrayList<Job>();
+
+
+	/**
+	 * Adds a job to the queue, if it isn't already queued.
+	 */
+	public static void schedule(Job job)
+	{
+		if (QUEUED_JOBS.add(job)) enqueue(job);
+	}
+
+
+	/**
+	 * Removes every job from the queue. Called when the server stops, as the jobs refer to the server's worlds.
+	 */
+	public static void clear()
+	{
+		QUEUES.clear();
+		QUEUED_JOBS.clear();
+		DEFERRED_JOBS.clear();
+	}
+
+
+	private static void enqueue(Job job)
+	{
+		ArrayDeque<Job> queue = QUEUES.get(job.getOwnerKey());
+		if (queue == null)
+		{
+			queue = new ArrayDeque<Job>();
+			QUEUES.put(job.getOwnerKey(), queue);
+		}
+		queue.add(job);
+	}
+
+	/**
+	 * Runs queued operations until the queue is empty or the time budget for the tick has been used.
+	 */
+	private static void drain()
+	{
+		// the jobs held over from the last tick get another turn
+		for ( Job job : DEFERRED_JOBS ) enqueue(job);
+		DEFERRED_JOBS.clear();
+
+		if (QUEUES.isEmpty()) return;
+
+		long budgetNanos = ModConfiguration.automationTickBudget * 1000L;
+		long startTime = System.nanoTime();
+		long elapsedNanos = 0;
+
+		// the number of operations each job has run this tick
+		Map<Job, Integer> operations = new IdentityHashMap<Job, Integer>();
+		int totalOperations = 0;
+
+		while (!QUEUES.isEmpty() && elapsedNanos < budgetNanos)
+		{
+			// take the next job from the owner at the front of the queue
+			Iterator<Map.Entry<Object, ArrayDeque<Job>>> iterator = QUEUES.entrySet().iterator();
+			Map.Entry<Object, ArrayDeque<Job>> entry = iterator.next();
+			iterator.remove();
+
+			ArrayDeque<Job> queue = entry.getValue();
+			Job job = queue.poll();
+
+			boolean moreWork = false;
+			if (job.isJobValid())
+			{
+				long operationStartTime = UncraftingMetrics.startTiming();
+				try
+				{
+					moreWork = job.runOperation();
+				}
+				finally
+				{
+					UncraftingMetrics.AUTOMATIC_UNCRAFTS.record(operationStartTime);
+				}
+				totalOperations++;
+			}
+
+			if (moreWork)
+			{
+				// put the job to the back of its owner's queue, or hold it over to the next tick if it's used all its operations for this one
+				Integer count = operations.get(job);
+				count = (count == null ? 1 : count + 1);
+				operations.put(job, count);
+
+				if (count < ModConfiguration.automationOperationsPerTick) queue.add(job);
+				else DEFERRED_JOBS.add(job);
+			}
+			else QUEUED_JOBS.remove(job);
+
+			// the owner goes to the back of the queue until everyone else has had a turn
+			if (!queue.isEmpty()) QUEUES.put(entry.getKey(), queue);
+
+			elapsedNanos = System.nanoTime() - startTime;
+		}
+
+		UncraftingMetrics.increment(UncraftingMetrics.SCHEDULER_OPERATIONS, totalOperations);
+		if (!QUEUES.isEmpty()) UncraftingMetrics.increment(UncraftingMetrics.SCHEDULER_SPILLED_TICKS, 1);
+		if (elapsedNanos > budgetNanos) UncraftingMetrics.increment(UncraftingMetrics.SCHEDULER_OVERRUNS, 1);
+	}
+
+
+	@EventBusSubscriber
+	public static class SchedulerEventHandler
+	{
+
+		@SubscribeEvent
+		public static void onServerTick(TickEvent.ServerTickEvent event)
+		{
+			if (event.phase != TickEvent.Phase.END) return;
+
+			// only time the ticks where there's something to do
+			if (!QUEUED_JOBS.isEmpty())
+			{
+				long startTime = UncraftingMetrics.startTiming();
+				try
+				{
+					drain();
+				}
+				finally
+				{
+					UncraftingMetrics.SCHEDULER_TICKS.record(startTime);
+				}
+			}
+			UncraftingMetrics.updateQueueDepth(QUEUED_JOBS.size());
+		}
+
+	}
+
+}
@@ -22,7 +22,10 @@ public final class NBTSensitiveRecipeHandlers
 	/**
 	 * Interface for a recipe handler where the recipe output depends on the NBT data of the input ItemStack
 	 *
+	 * @deprecated Override {@link RecipeHandler#getCraftingGrid(IRecipe, ItemStack)} instead. Handlers implementing this interface
+	 * are still supported, but calls to them are serialised as the input stack is stored on the handler instance.
 	 */
+	@Deprecated
 	public static abstract interface INBTSensitiveRecipeHandler
 	{
 		void setInputStack(ItemStack stack);
@@ -32,19 +35,28 @@ public final class NBTSensitiveRecipeHandlers
 
 
 	/**
-	 * Abstract base class extending the base recipe handler implementing the INBTSensitiveRecipeHandler interface
+	 * Abstract base class extending the base recipe handler for recipes where the crafting grid depends on the input ItemStack
 	 *
 	 */
-	public static abstract class NBTSensitiveRecipeHandler extends RecipeHandler implements INBTSensitiveRecipeHandler
+	public static abstract class NBTSensitiveRecipeHandler extends RecipeHandler
 	{
-		protected ItemStack inputStack;
-
 		@Override
-		public void setInputStack(ItemStack stack){ inputStack = stack; }
+		public abstract NonNullList<ItemStack> getCraftingGrid(IRecipe r, ItemStack inputStack);
 
+		/**
+		 * Without an input stack there's nothing to build the crafting grid from, so this returns an empty grid
+		 */
 		@Override
-		public ItemStack getInputStack(){ return inputStack; }
+		public NonNullList<ItemStack> getCraftingGrid(IRecipe r)
+		{
+			return NonNullList.<ItemStack>create();
+		}
 
+		@Override
+		public boolean isInputSensitive()
+		{
+			return true;
+		}
 	}
 
 
@@ -55,7 +67,7 @@ public final class NBTSensitiveRecipeHandlers
 	public static class FireworksRecipeHandler extends NBTSensitiveRecipeHandler
 	{
 
-		private List<ItemStack> getFireworkStarItems()
+		private List<ItemStack> getFireworkStarItems(ItemStack inputStack)
 		{
 			List<ItemStack> recipeItems = new ArrayList<ItemStack>();
 
@@ -94,7 +106,7 @@ public final class NBTSensitiveRecipeHandlers
 		}
 
 
-		private List<ItemStack> getFireworkRocketItems()
+		private List<ItemStack> getFireworkRocketItems(ItemStack inputStack)
 		{
 			List<ItemStack> recipeItems = new ArrayList<ItemStack>();
 
@@ -131,12 +143,12 @@ public final class NBTSensitiveRecipeHandlers
 
 
 		@Override
-		public NonNullList<ItemStack> getCraftingGrid(IRecipe r)
+		public NonNullList<ItemStack> getCraftingGrid(IRecipe r, ItemStack inputStack)
 		{
 			NonNullList<ItemStack> recipeItems = NonNullList.<ItemStack>create();
 
-	        if (inputStack.getItem() == Items.FIREWORK_CHARGE) recipeItems.addAll(getFireworkStarItems());
-	        if (inputStack.getItem() == Items.FIREWORKS) recipeItems.addAll(getFireworkRocketItems());
+	        if (inputStack.getItem() == Items.FIREWORK_CHARGE) recipeItems.addAll(getFireworkStarItems(inputStack));
+	        if (inputStack.getItem() == Items.FIREWORKS) recipeItems.addAll(getFireworkRocketItems(inputStack));
 
 	        return recipeItems;
 		}
@@ -150,7 +162,7 @@ public final class NBTSensitiveRecipeHandlers
 	public static class TippedArrowRecipeHandler extends NBTSensitiveRecipeHandler
 	{
 		@Override
-		public NonNullList<ItemStack> getCraftingGrid(IRecipe r)
+		public NonNullList<ItemStack> getCraftingGrid(IRecipe r, ItemStack inputStack)
 		{
 			NonNullList<ItemStack> recipeItems = NonNullList.<ItemStack>create();
 
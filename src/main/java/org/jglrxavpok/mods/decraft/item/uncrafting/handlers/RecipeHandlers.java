@@ -3,7 +3,10 @@ package org.jglrxavpok.mods.decraft.item.uncrafting.handlers;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.NBTSensitiveRecipeHandlers.FireworksRecipeHandler;
+import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.NBTSensitiveRecipeHandlers.INBTSensitiveRecipeHandler;
 import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.NBTSensitiveRecipeHandlers.TippedArrowRecipeHandler;
 import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.external.CoFHRecipeHandlers;
 import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.external.IC2RecipeHandlers.ShapedIC2RecipeHandler;
@@ -32,16 +35,70 @@ public final class RecipeHandlers
 
 	public static class RecipeMap<T> extends HashMap<Class<? extends IRecipe>, T>
 	{
+		// placeholder stored in the resolved map for classes which have no value, as ConcurrentHashMap doesn't allow nulls
+		private static final Object NONE = new Object();
+
+		// the value found for each concrete class by walking its superclasses, so that the walk only happens once per class
+		private final Map<Class<? extends IRecipe>, Object> resolved = new ConcurrentHashMap<Class<? extends IRecipe>, Object>();
+
 		public T get(Class<? extends IRecipe> key)
 		{
-			T result = super.get(key);
-			while (result == null && key.getSuperclass() != Object.class) // while (result == null && key.getSuperclass() != IRecipe.class)
+			Object result = this.resolved.get(key);
+			if (result == null) result = resolve(key);
+			return (result != NONE ? (T)result : null);
+		}
+
+		// the resolved value is stored while holding the lock, so that a change to the registered values can't be undone by storing a value found before it
+		private synchronized Object resolve(Class<? extends IRecipe> key)
+		{
+			// another thread may have resolved the class while this one was waiting for the lock
+			Object result = this.resolved.get(key);
+			if (result != null) return result;
+
+			Class<? extends IRecipe> recipeClass = key;
+			T value = super.get(recipeClass);
+			while (value == null && recipeClass.getSuperclass() != Object.class) // while (value == null && recipeClass.getSuperclass() != IRecipe.class)
 			{
-				key = (Class<? extends IRecipe>)key.getSuperclass();
-				result = super.get(key);
+				recipeClass = (Class<? extends IRecipe>)recipeClass.getSuperclass();
+				value = super.get(recipeClass);
 			}
+
+			result = (value != null ? value : NONE);
+			this.resolved.put(key, result);
+			return result;
+		}
+
+		// any change to the registered values can change what a class resolves to, so forget the resolved values
+
+		@Override
+		public synchronized T put(Class<? extends IRecipe> key, T value)
+		{
+			T result = super.put(key, value);
+			this.resolved.clear();
+			return result;
+		}
+
+		@Override
+		public synchronized void putAll(Map<? extends Class<? extends IRecipe>, ? extends T> map)
+		{
+			super.putAll(map);
+			this.resolved.clear();
+		}
+
+		@Override
+		public synchronized T remove(Object key)
+		{
+			T result = super.remove(key);
+			this.resolved.clear();
 			return result;
 		}
+
+		@Override
+		public synchronized void clear()
+		{
+			super.clear();
+			this.resolved.clear();
+		}
 	}
 
 
@@ -98,6 +155,35 @@ public final class RecipeHandlers
 
 		public abstract NonNullList<ItemStack> getCraftingGrid(IRecipe r);
 
+		/**
+		 * Returns the crafting grid for a recipe when uncrafting the given input stack.
+		 * Handlers whose crafting grid depends on the input stack should override this method rather than storing the stack,
+		 * so that a single handler instance can be used from more than one thread.
+		 */
+		public NonNullList<ItemStack> getCraftingGrid(IRecipe r, ItemStack inputStack)
+		{
+			// handlers still implementing INBTSensitiveRecipeHandler keep the input stack in a field,
+			// so calls to them have to be serialised to stop one lookup from seeing another lookup's input stack
+			if (this instanceof INBTSensitiveRecipeHandler)
+			{
+				synchronized(this)
+				{
+					((INBTSensitiveRecipeHandler)this).setInputStack(inputStack.copy());
+					return getCraftingGrid(r);
+				}
+			}
+			return getCraftingGrid(r);
+		}
+
+		/**
+		 * Returns true if the crafting grid returned by this handler depends on the input stack,
+		 * in which case it has to be resolved for each lookup rather than being precomputed.
+		 */
+		public boolean isInputSensitive()
+		{
+			return (this instanceof INBTSensitiveRecipeHandler);
+		}
+
 
 		/**
 		 * Used by subclasses referencing external IRecipe implementations
@@ -137,6 +223,17 @@ public final class RecipeHandlers
 		}
 
 
+		/**
+		 * Returns the list of known output items from an IRecipe implementation which returns a null value from getRecipeOutput().
+		 * Used when building the recipe index, so that these recipes can be found by any of their possible outputs.
+		 */
+		public static ItemStack[] getPossibleRecipeOutputs(IRecipe r)
+		{
+			ItemStack[] outputStacks = RecipeHandlers.RECIPE_OUTPUTS.get(r.getClass());
+			return (outputStacks != null ? outputStacks : new ItemStack[0]);
+		}
+
+
 		/**
 		 * Takes a list of ItemStacks from a shaped recipe and correctly positions them according to the recipe width and height
 		 */
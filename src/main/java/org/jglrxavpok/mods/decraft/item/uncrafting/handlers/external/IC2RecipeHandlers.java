@@ -1,5 +1,7 @@
 package org.jglrxavpok.mods.decraft.item.uncrafting.handlers.external;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
@@ -17,6 +19,62 @@ import net.minecraft.util.NonNullList;
 public class IC2RecipeHandlers
 {
 
+	// the IndustrialCraft2 API types used by the handlers, resolved once so that they don't need to be looked up for every ingredient.
+	// these will be null if IndustrialCraft2 isn't installed.
+	private static final Class<?> recipeInputClass = getClass("ic2.api.recipe.IRecipeInput");
+	private static final Class<?> electricItemClass = getClass("ic2.api.item.IElectricItem");
+	private static final MethodHandle getRecipeInputs = getMethodHandle(recipeInputClass, "getInputs");
+
+
+	private static Class<?> getClass(String className)
+	{
+		try
+		{
+			return Class.forName(className);
+		}
+		catch(ClassNotFoundException ex)
+		{
+			return null;
+		}
+	}
+
+	private static MethodHandle getMethodHandle(Class<?> clazz, String methodName)
+	{
+		if (clazz == null) return null;
+		try
+		{
+			return MethodHandles.publicLookup().unreflect(clazz.getMethod(methodName));
+		}
+		catch(Exception ex)
+		{
+			ModUncrafting.LOGGER.catching(ex);
+			return null;
+		}
+	}
+
+	private static MethodHandle getFieldGetter(Class<?> clazz, String fieldName)
+	{
+		if (clazz == null) return null;
+		try
+		{
+			return MethodHandles.publicLookup().unreflectGetter(clazz.getField(fieldName));
+		}
+		catch(Exception ex)
+		{
+			ModUncrafting.LOGGER.catching(ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Calls IRecipeInput.getInputs() on an IndustrialCraft2 recipe input
+	 */
+	private static List<ItemStack> getRecipeInputs(Object recipeInput) throws Throwable
+	{
+		return (List<ItemStack>)getRecipeInputs.invoke(recipeInput);
+	}
+
+
 	/**
 	 * Handler for shaped recipes from the IndustrialCraft2 mod
 	 *
@@ -26,6 +84,11 @@ public class IC2RecipeHandlers
 
 		public static final Class<? extends IRecipe> recipeClass = getRecipeClass("ic2.core.recipe.AdvRecipe");
 
+		private static final MethodHandle getInput = getFieldGetter(recipeClass, "input");
+		private static final MethodHandle getMasks = getFieldGetter(recipeClass, "masks");
+		private static final MethodHandle getInputWidth = getFieldGetter(recipeClass, "inputWidth");
+		private static final MethodHandle getInputHeight = getFieldGetter(recipeClass, "inputHeight");
+
 
 		private static List<List<ItemStack>> replaceRecipeInputs(List list)
 		{
@@ -41,11 +104,11 @@ public class IC2RecipeHandlers
 					}
 					else
 					{
-						List<ItemStack> replace = new ArrayList<ItemStack>((List<ItemStack>)(Class.forName("ic2.api.recipe.IRecipeInput").getMethod("getInputs", (Class[])null).invoke(recipe))); // List<ItemStack> replace = new ArrayList(recipe.getInputs());
+						List<ItemStack> replace = new ArrayList<ItemStack>(getRecipeInputs(recipe)); // List<ItemStack> replace = new ArrayList(recipe.getInputs());
 						for (ListIterator<ItemStack> it = replace.listIterator(); it.hasNext();)
 						{
 							ItemStack stack = it.next();
-							if ((stack != null) && (Class.forName("ic2.api.item.IElectricItem").isInstance(stack.getItem()))) // if ((stack != null) && ((stack.getItem() instanceof IElectricItem)))
+							if ((stack != null) && (electricItemClass != null) && (electricItemClass.isInstance(stack.getItem()))) // if ((stack != null) && ((stack.getItem() instanceof IElectricItem)))
 							{
 								it.set(stack.copy()); // it.set(StackUtil.copyWithWildCard(stack));
 							}
@@ -56,18 +119,16 @@ public class IC2RecipeHandlers
 				return out;
 				// *** modified from ic2.jeiIntegration.recipe.crafting.AdvRecipeWrapper ***
 			}
-			catch (Exception ex) { return null; }
+			catch (Throwable ex) { return null; }
 		}
 
-		private static List<List<ItemStack>> getInputs(IRecipe r)
+		private static List<List<ItemStack>> getInputs(IRecipe r, int inputWidth, int inputHeight)
 		{
 			try
 			{
 				// *** modified from ic2.jeiIntegration.recipe.crafting.AdvRecipeWrapper ***
-				Object[] input = (Object[])recipeClass.getField("input").get(r);
-				int[] masks = (int[])recipeClass.getField("masks").get(r);
-				int inputWidth = (Integer)(recipeClass.getField("inputWidth").get(r));
-				int inputHeight = (Integer)(recipeClass.getField("inputHeight").get(r));
+				Object[] input = (Object[])getInput.invoke(r);
+				int[] masks = (int[])getMasks.invoke(r);
 
 				int mask = masks[0]; // int mask = this.recipe.masks[0];
 				int itemIndex = 0;
@@ -89,15 +150,27 @@ public class IC2RecipeHandlers
 				return replaceRecipeInputs(ret);
 				// *** modified from ic2.jeiIntegration.recipe.crafting.AdvRecipeWrapper ***
 			}
-			catch (Exception ex) { return null; }
+			catch (Throwable ex) { return null; }
 		}
 
 		@Override
 		public NonNullList<ItemStack> getCraftingGrid(IRecipe r)
 		{
+			int inputWidth;
+			int inputHeight;
+			try
+			{
+				inputWidth = (int)getInputWidth.invoke(r);
+				inputHeight = (int)getInputHeight.invoke(r);
+			}
+			catch (Throwable ex)
+			{
+				return NonNullList.<ItemStack>withSize(9, ItemStack.EMPTY);
+			}
+
 			List<ItemStack> itemStacks = new ArrayList<ItemStack>();
 
-			List<List<ItemStack>> items = getInputs(r);
+			List<List<ItemStack>> items = getInputs(r, inputWidth, inputHeight);
 			if (items != null)
 			{
 				for ( List<ItemStack> list : items )
@@ -113,17 +186,7 @@ public class IC2RecipeHandlers
 				}
 			}
 
-			try
-			{
-				int inputWidth = (Integer)(recipeClass.getField("inputWidth").get(r));
-				int inputHeight = (Integer)(recipeClass.getField("inputHeight").get(r));
-
-				return reshapeRecipe(copyRecipeStacks(itemStacks), inputWidth, inputHeight);
-			}
-			catch (Exception ex)
-			{
-				return NonNullList.<ItemStack>withSize(9, ItemStack.EMPTY);
-			}
+			return reshapeRecipe(copyRecipeStacks(itemStacks), inputWidth, inputHeight);
 		}
 	}
 
@@ -136,6 +199,8 @@ public class IC2RecipeHandlers
 
 		public static final Class<? extends IRecipe> recipeClass = getRecipeClass("ic2.core.recipe.AdvShapelessRecipe");
 
+		private static final MethodHandle getInput = getFieldGetter(recipeClass, "input");
+
 
 		private static List<List<ItemStack>> getInputs(IRecipe r)
 		{
@@ -143,14 +208,14 @@ public class IC2RecipeHandlers
 			{
 				// *** modified from ic2.jeiIntegration.recipe.crafting.AdvShapelessRecipeWrapper ***
 				List<List<ItemStack>> ret = new ArrayList();
-				for (Object input : (Object[])recipeClass.getField("input").get(r)) // for (IRecipeInput input : this.recipe.input)
+				for (Object input : (Object[])getInput.invoke(r)) // for (IRecipeInput input : this.recipe.input)
 				{
-					ret.add( (List<ItemStack>)(Class.forName("ic2.api.recipe.IRecipeInput").getMethod("getInputs", (Class[])null).invoke(input)) ); // ret.add(input.getInputs());
+					ret.add(getRecipeInputs(input)); // ret.add(input.getInputs());
 			    }
 			    return ret;
 				// *** modified from ic2.jeiIntegration.recipe.crafting.AdvShapelessRecipeWrapper ***
 			}
-			catch(Exception ex){ return null; }
+			catch(Throwable ex){ return null; }
 		}
 
 
@@ -3,7 +3,6 @@ package org.jglrxavpok.mods.decraft.item.uncrafting.handlers.external;
 import org.apache.commons.lang3.ArrayUtils;
 import org.jglrxavpok.mods.decraft.common.config.ModJsonConfiguration;
 import org.jglrxavpok.mods.decraft.common.config.ModJsonConfiguration.ItemMapping;
-import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.NBTSensitiveRecipeHandlers.INBTSensitiveRecipeHandler;
 import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.RecipeHandlers.ShapedOreRecipeHandler;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.IRecipe;
@@ -21,16 +20,14 @@ public class TinkersRecipeHandlers
 	 * Handler for Part Builders, Stencil Tables, Tool Forges and Tool Tables
 	 *
 	 */
-	public static class TableRecipeHandler extends ShapedOreRecipeHandler implements INBTSensitiveRecipeHandler
+	public static class TableRecipeHandler extends ShapedOreRecipeHandler
 	{
 
 		public static final Class<? extends IRecipe> recipeClass = getRecipeClass("slimeknights.tconstruct.tools.common.TableRecipeFactory$TableRecipe");
 
-		private ItemStack inputStack;
-
 
 		@Override
-		public NonNullList<ItemStack> getCraftingGrid(IRecipe r)
+		public NonNullList<ItemStack> getCraftingGrid(IRecipe r, ItemStack inputStack)
 		{
 			NonNullList<ItemStack> result = super.getCraftingGrid(r);
 
@@ -53,12 +50,11 @@ public class TinkersRecipeHandlers
 			return result;
 		}
 
-
-		@Override
-		public void setInputStack(ItemStack stack) { this.inputStack = stack; }
-
 		@Override
-		public ItemStack getInputStack() { return this.inputStack; }
+		public boolean isInputSensitive()
+		{
+			return true;
+		}
 
 	}
 
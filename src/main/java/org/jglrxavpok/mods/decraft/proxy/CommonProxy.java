@@ -1,14 +1,21 @@
 package org.jglrxavpok.mods.decraft.proxy;
 
 import org.jglrxavpok.mods.decraft.ModUncrafting;
+import org.jglrxavpok.mods.decraft.command.CommandUncrafting;
 import org.jglrxavpok.mods.decraft.common.config.ModConfiguration;
 import org.jglrxavpok.mods.decraft.common.config.ModJsonConfiguration;
 import org.jglrxavpok.mods.decraft.common.network.ModGuiHandler;
+import org.jglrxavpok.mods.decraft.common.network.message.BulkUncraftMessage;
+import org.jglrxavpok.mods.decraft.common.network.message.ConfigRequestMessage;
 import org.jglrxavpok.mods.decraft.common.network.message.ConfigSyncMessage;
 import org.jglrxavpok.mods.decraft.common.network.message.RecipeNavigationMessage;
+import org.jglrxavpok.mods.decraft.common.network.message.UncraftingGridMessage;
+import org.jglrxavpok.mods.decraft.common.network.message.UncraftingResultMessage;
+import org.jglrxavpok.mods.decraft.common.network.message.UncraftingResultStateMessage;
 import org.jglrxavpok.mods.decraft.init.ModItems;
 import org.jglrxavpok.mods.decraft.integration.ModIntegrations;
 import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingManager;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingScheduler;
 import org.jglrxavpok.mods.decraft.item.uncrafting.handlers.RecipeHandlers;
 import org.jglrxavpok.mods.decraft.stats.ModAchievementList;
 import net.minecraft.init.Blocks;
@@ -17,6 +24,7 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.oredict.ShapedOreRecipe;
@@ -45,6 +53,16 @@ public class CommonProxy
 		this.initializeRecipeHandlers();
 	}
 
+	public void serverStarting(FMLServerStartingEvent event)
+	{
+		this.registerCommands(event);
+	}
+
+	public void serverStopped()
+	{
+		this.clearServerState();
+	}
+
 
 	private void initializeConfig()
 	{
@@ -55,6 +73,17 @@ public class CommonProxy
 	private void initializeRecipeHandlers()
 	{
 		RecipeHandlers.postInit();
+		UncraftingManager.buildRecipeIndex();
+		if (ModConfiguration.precomputeGrids) UncraftingManager.precomputeCraftingGrids();
+	}
+
+
+	private void clearServerState()
+	{
+		// drop anything which refers to the stopped server's worlds, so that they aren't kept when another world is loaded
+		UncraftingScheduler.clear();
+		RecipeNavigationMessage.clearPendingNavigations();
+		ConfigRequestMessage.clearSentLists();
 	}
 
 
@@ -63,6 +92,11 @@ public class CommonProxy
 		ModAchievementList.registerAchievementPage();
 	}
 
+	private void registerCommands(FMLServerStartingEvent event)
+	{
+		event.registerServerCommand(new CommandUncrafting());
+	}
+
 	private void registerGuiHandler()
 	{
 		NetworkRegistry.INSTANCE.registerGuiHandler(ModUncrafting.instance, new ModGuiHandler());
@@ -83,6 +117,11 @@ public class CommonProxy
 		ModUncrafting.NETWORK.registerMessage(RecipeNavigationMessage.MessageHandler.class, RecipeNavigationMessage.class, 0, Side.SERVER);
 		ModUncrafting.NETWORK.registerMessage(ConfigSyncMessage.MessageHandler.class, ConfigSyncMessage.class, 1, Side.CLIENT);
 		ModUncrafting.NETWORK.registerMessage(ConfigSyncMessage.MessageHandler.class, ConfigSyncMessage.class, 2, Side.SERVER);
+		ModUncrafting.NETWORK.registerMessage(ConfigRequestMessage.MessageHandler.class, ConfigRequestMessage.class, 3, Side.SERVER);
+		ModUncrafting.NETWORK.registerMessage(UncraftingResultMessage.MessageHandler.class, UncraftingResultMessage.class, 4, Side.CLIENT);
+		ModUncrafting.NETWORK.registerMessage(BulkUncraftMessage.MessageHandler.class, BulkUncraftMessage.class, 5, Side.SERVER);
+		ModUncrafting.NETWORK.registerMessage(UncraftingGridMessage.MessageHandler.class, UncraftingGridMessage.class, 6, Side.CLIENT);
+		ModUncrafting.NETWORK.registerMessage(UncraftingResultStateMessage.MessageHandler.class, UncraftingResultStateMessage.class, 7, Side.CLIENT);
 	}
 
 	private void registerUncraftingRecipes()
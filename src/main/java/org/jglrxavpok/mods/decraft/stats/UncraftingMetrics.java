@@ -0,0 +1,247 @@
+package org.jglrxavpok.mods.decraft.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.jglrxavpok.mods.decraft.ModUncrafting;
+import org.jglrxavpok.mods.decraft.common.config.ModConfiguration;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+
+
+/**
+ * Counters and latency histograms for the work the uncrafting table does on the server,
+ * reported by the "/uncrafting stats" command and periodically written to the log.
+ * Only work done on the server thread is recorded, so that the client half of an integrated server doesn't skew the figures.
+ *
+ */
+public class UncraftingMetrics
+{
+
+	// uncrafting result lookups, and how they were resolved
+	public static final Timer LOOKUPS = new Timer("Lookups");
+	public static final AtomicLong CACHE_HITS = new AtomicLong();
+	public static final AtomicLong CACHE_MISSES = new AtomicLong();
+	public static final AtomicLong RECIPES_SCANNED = new AtomicLong();
+
+	// container operations
+	public static final Timer UNCRAFTS = new Timer("Uncrafts");
+	public static final Timer MATRIX_CHANGES = new Timer("Matrix changes");
+
+	// automatic uncrafting table operations, and the scheduler which runs them
+	public static final Timer AUTOMATIC_UNCRAFTS = new Timer("Automatic uncrafts");
+	public static final Timer SCHEDULER_TICKS = new Timer("Scheduler ticks");
+	public static final AtomicLong SCHEDULER_OPERATIONS = new AtomicLong();
+	public static final AtomicLong SCHEDULER_SPILLED_TICKS = new AtomicLong();
+	public static final AtomicLong SCHEDULER_OVERRUNS = new AtomicLong();
+	public static final AtomicLong SCHEDULER_QUEUE_DEPTH = new AtomicLong();
+	public static final AtomicLong SCHEDULER_MAX_QUEUE_DEPTH = new AtomicLong();
+
+	// recipe navigation messages, and those which were merged with a later message, ignored as invalid or dropped by the rate limit
+	public static final AtomicLong NAVIGATIONS = new AtomicLong();
+	public static final AtomicLong NAVIGATIONS_COALESCED = new AtomicLong();
+	public static final AtomicLong NAVIGATIONS_INVALID = new AtomicLong();
+	public static final AtomicLong NAVIGATIONS_THROTTLED = new AtomicLong();
+
+
+	/**
+	 * Returns true if the current thread is the server thread.
+	 */
+	public static boolean isRecording()
+	{
+		return (FMLCommonHandler.instance().getEffectiveSide() == Side.SERVER);
+	}
+
+	/**
+	 * Returns the start time to pass to Timer.record, or -1 if nothing should be recorded for the current thread.
+	 */
+	public static long startTiming()
+	{
+		return (isRecording() ? System.nanoTime() : -1);
+	}
+
+	public static void increment(AtomicLong counter, long amount)
+	{
+		if (isRecording()) counter.addAndGet(amount);
+	}
+
+	/**
+	 * Records the number of jobs waiting in the uncrafting scheduler's queue.
+	 */
+	public static void updateQueueDepth(int depth)
+	{
+		if (!isRecording()) return;
+		SCHEDULER_QUEUE_DEPTH.set(depth);
+		if (depth > SCHEDULER_MAX_QUEUE_DEPTH.get()) SCHEDULER_MAX_QUEUE_DEPTH.set(depth);
+	}
+
+
+	public static void reset()
+	{
+		LOOKUPS.reset();
+		CACHE_HITS.set(0);
+		CACHE_MISSES.set(0);
+		RECIPES_SCANNED.set(0);
+		UNCRAFTS.reset();
+		MATRIX_CHANGES.reset();
+		AUTOMATIC_UNCRAFTS.reset();
+		SCHEDULER_TICKS.reset();
+		SCHEDULER_OPERATIONS.set(0);
+		SCHEDULER_SPILLED_TICKS.set(0);
+		SCHEDULER_OVERRUNS.set(0);
+		SCHEDULER_MAX_QUEUE_DEPTH.set(SCHEDULER_QUEUE_DEPTH.get());
+		NAVIGATIONS.set(0);
+		NAVIGATIONS_COALESCED.set(0);
+		NAVIGATIONS_INVALID.set(0);
+		NAVIGATIONS_THROTTLED.set(0);
+	}
+
+	/**
+	 * Returns a human readable summary of the metrics, one line per element.
+	 */
+	public static List<String> getSummary()
+	{
+		List<String> lines = new ArrayList<String>();
+
+		long hits = CACHE_HITS.get();
+		long misses = CACHE_MISSES.get();
+		long scanned = RECIPES_SCANNED.get();
+		lines.add(String.format("Cache: %d hits, %d misses (%.1f%% hit rate), %d recipes scanned (%.1f per miss)",
+			hits, misses, (hits + misses > 0 ? (100D * hits) / (hits + misses) : 0D), scanned, (misses > 0 ? (double)scanned / misses : 0D)));
+
+		lines.add(LOOKUPS.getSummary());
+		lines.add(UNCRAFTS.getSummary());
+		lines.add(MATRIX_CHANGES.getSummary());
+		lines.add(AUTOMATIC_UNCRAFTS.getSummary());
+		lines.add(SCHEDULER_TICKS.getSummary());
+		lines.add(String.format("Scheduler: %d operations, queue depth %d (max %d), %d ticks with work carried over, %d ticks over budget",
+			SCHEDULER_OPERATIONS.get(), SCHEDULER_QUEUE_DEPTH.get(), SCHEDULER_MAX_QUEUE_DEPTH.get(), SCHEDULER_SPILLED_TICKS.get(), SCHEDULER_OVERRUNS.get()));
+
+		lines.add(String.format("Recipe navigation: %d applied, %d coalesced, %d invalid, %d throttled",
+			NAVIGATIONS.get(), NAVIGATIONS_COALESCED.get(), NAVIGATIONS_INVALID.get(), NAVIGATIONS_THROTTLED.get()));
+
+		return lines;
+	}
+
+
+	/**
+	 * A call counter with a histogram of call durations, using power of two microsecond buckets.
+	 *
+	 */
+	public static class Timer
+	{
+
+		private static final int BUCKET_COUNT = 32;
+
+		private final String name;
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong totalNanos = new AtomicLong();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+
+		public Timer(String name)
+		{
+			this.name = name;
+		}
+
+
+		/**
+		 * Records a call which started at the given time, as returned from UncraftingMetrics.startTiming.
+		 */
+		public void record(long startTime)
+		{
+			if (startTime < 0) return;
+			long nanos = System.nanoTime() - startTime;
+
+			this.count.incrementAndGet();
+			this.totalNanos.addAndGet(nanos);
+
+			long max = this.maxNanos.get();
+			while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) max = this.maxNanos.get();
+
+			// bucket 0 holds calls under 1 microsecond, and bucket n holds calls of at least 2^(n-1) microseconds
+			long micros = nanos / 1000L;
+			int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+			this.buckets.incrementAndGet(bucket);
+		}
+
+		public long getCount()
+		{
+			return this.count.get();
+		}
+
+		/**
+		 * Returns the upper bound in microseconds of the histogram bucket containing the given percentile of calls.
+		 */
+		public long getPercentile(double percentile)
+		{
+			long count = this.count.get();
+			if (count == 0) return 0;
+
+			long target = (long)Math.ceil(count * (percentile / 100D));
+			long seen = 0;
+			for ( int i = 0 ; i < BUCKET_COUNT ; i++ )
+			{
+				seen += this.buckets.get(i);
+				if (seen >= target) return (1L << i);
+			}
+			return (1L << (BUCKET_COUNT - 1));
+		}
+
+		public String getSummary()
+		{
+			long count = this.count.get();
+			double averageMicros = (count > 0 ? (this.totalNanos.get() / 1000D) / count : 0D);
+			return String.format("%s: %d calls, avg %.1fus, p50 <%dus, p99 <%dus, max %.1fus, total %.1fms",
+				this.name, count, averageMicros, getPercentile(50), getPercentile(99), this.maxNanos.get() / 1000D, this.totalNanos.get() / 1000000D);
+		}
+
+		public void reset()
+		{
+			this.count.set(0);
+			this.totalNanos.set(0);
+			this.maxNanos.set(0);
+			for ( int i = 0 ; i < BUCKET_COUNT ; i++ ) this.buckets.set(i, 0);
+		}
+
+	}
+
+
+	@EventBusSubscriber
+	public static class MetricsEventHandler
+	{
+
+		private static int ticksSinceLastLog = 0;
+
+		/**
+		 * Writes a summary of the metrics to the log every metricsLogInterval minutes, if enabled in config
+		 */
+		@SubscribeEvent
+		public static void onServerTick(TickEvent.ServerTickEvent event)
+		{
+			if (event.phase != TickEvent.Phase.END) return;
+
+			if (ModConfiguration.metricsLogInterval <= 0)
+			{
+				ticksSinceLastLog = 0;
+				return;
+			}
+
+			if (++ticksSinceLastLog >= ModConfiguration.metricsLogInterval * 60 * 20)
+			{
+				ticksSinceLastLog = 0;
+				if (LOOKUPS.getCount() > 0 || UNCRAFTS.getCount() > 0 || MATRIX_CHANGES.getCount() > 0 || AUTOMATIC_UNCRAFTS.getCount() > 0)
+				{
+					for ( String line : getSummary() ) ModUncrafting.LOGGER.info(line);
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,337 @@
+package org.jglrxavpok.mods.decraft.tileentity;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.jglrxavpok.mods.decraft.common.config.ModConfiguration;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingManager;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingResult;
+import org.jglrxavpok.mods.decraft.item.uncrafting.UncraftingScheduler;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ITickable;
+import net.minecraft.util.NonNullList;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.ItemStackHandler;
+import net.minecraftforge.items.wrapper.CombinedInvWrapper;
+
+
+/**
+ * The tile entity for the automatic uncrafting table. Items inserted from the top or sides are uncrafted,
+ * and the results can be extracted from the bottom. Items which can't be uncrafted, including any left over after uncrafting a stack,
+ * enchanted items, and items which cost more experience than the table can hold, are passed straight through to the output.
+ * The uncrafting itself is run by the UncraftingScheduler, so that it stays within the time allowed for automatic uncrafting each tick.
+ *
+ */
+public class TileEntityAutomaticUncraftingTable extends TileEntity implements ITickable, UncraftingScheduler.Job
+{
+
+	private static final int OUTPUT_SLOTS = 18;
+
+	private final InputStackHandler input = new InputStackHandler();
+	private final OutputStackHandler output = new OutputStackHandler();
+	private final CombinedInvWrapper combined = new CombinedInvWrapper(this.input, this.output);
+
+	// the number of experience levels stored in the table
+	private int storedExperience = 0;
+
+	// the player who placed the table, used to share the scheduler's time fairly between players
+	private UUID owner = null;
+
+	// whether anything has changed since the table last found it couldn't do anything, so that a blocked table doesn't look up its input every tick
+	// (a blocked table still checks once a second, in case something else such as the config has changed)
+	private boolean needsUpdate = true;
+	private boolean unloaded = false;
+
+
+	/**
+	 * Queues the table with the scheduler if it may have work to do.
+	 */
+	@Override
+	public void update()
+	{
+		if (this.world.isRemote || this.input.getStackInSlot(0).isEmpty()) return;
+		if (!this.needsUpdate && this.world.getTotalWorldTime() % 20 != 0) return;
+
+		this.needsUpdate = false;
+		UncraftingScheduler.schedule(this);
+	}
+
+
+	@Override
+	public boolean runOperation()
+	{
+		boolean processed = processInput();
+
+		// the table's own changes to its contents don't need it to be scheduled again
+		this.needsUpdate = false;
+		return (processed && !this.input.getStackInSlot(0).isEmpty());
+	}
+
+	@Override
+	public boolean isJobValid()
+	{
+		return (!this.isInvalid() && !this.unloaded);
+	}
+
+	@Override
+	public Object getOwnerKey()
+	{
+		// tables placed by something other than a player share their turns with the other tables in the same chunk
+		return (this.owner != null ? this.owner : new ChunkPos(this.pos));
+	}
+
+	@Override
+	public void onChunkUnload()
+	{
+		this.unloaded = true;
+	}
+
+	/**
+	 * Uncrafts one recipe's worth of the stack in the input slot, or moves the stack to the output if it can't be uncrafted.
+	 * @return True if the input was processed, or false if the table has to wait for something to change
+	 */
+	private boolean processInput()
+	{
+		ItemStack inputStack = this.input.getStackInSlot(0);
+		if (inputStack.isEmpty()) return false;
+
+		// the table has nowhere to put books, so enchanted items are passed through rather than losing their enchantments
+		if (inputStack.isItemEnchanted()) return passThrough(inputStack);
+
+		// a table which doesn't use experience behaves like a player in creative mode
+		boolean usesExperience = ModConfiguration.automationUsesExperience;
+		UncraftingResult uncraftingResult = UncraftingManager.getUncraftingResult(inputStack, !usesExperience, this.storedExperience);
+
+		switch (uncraftingResult.resultType)
+		{
+			case VALID:
+				// uncraft a single recipe's worth of items, so that the scheduler can share the time between tables
+				// (any items left over which are too few to uncraft are passed through by a later operation)
+				int minStackSize = uncraftingResult.getMinStackSize();
+				NonNullList<ItemStack> craftingGrid = uncraftingResult.getCraftingGrid();
+
+				// wait until there's room in the output for everything
+				if (!this.output.addAll(UncraftingManager.getOutputStacks(craftingGrid, 1))) return false;
+
+				if (usesExperience) this.storedExperience -= uncraftingResult.experienceCost;
+				this.input.shrink(minStackSize);
+				return true;
+
+			case NOT_ENOUGH_XP:
+				// wait for more experience, unless the table can never hold enough
+				if (uncraftingResult.experienceCost > ModConfiguration.automationExperienceCapacity) return passThrough(inputStack);
+				return false;
+
+			default:
+				// items which can't be uncrafted, stacks which are too small to uncraft, and items which need container items are passed through to the output
+				return passThrough(inputStack);
+		}
+	}
+
+	/**
+	 * Moves the whole stack from the input slot to the output, so that it doesn't stop anything else being inserted.
+	 * @return True if the stack was moved, or false if there isn't room for it in the output
+	 */
+	private boolean passThrough(ItemStack inputStack)
+	{
+		if (!this.output.addAll(Collections.singletonList(inputStack.copy()))) return false;
+		this.input.shrink(inputStack.getCount());
+		return true;
+	}
+
+
+	public void setOwner(UUID owner)
+	{
+		this.owner = owner;
+		this.markDirty();
+	}
+
+	public int getStoredExperience()
+	{
+		return this.storedExperience;
+	}
+
+	/**
+	 * Adds experience levels to the table, up to its capacity.
+	 * @return The number of levels which were added
+	 */
+	public int addExperience(int levels)
+	{
+		int added = Math.max(0, Math.min(levels, ModConfiguration.automationExperienceCapacity - this.storedExperience));
+		if (added > 0)
+		{
+			this.storedExperience += added;
+			this.needsUpdate = true;
+			this.markDirty();
+		}
+		return added;
+	}
+
+	/**
+	 * Returns the items in the table, so that they can be dropped when the block is broken.
+	 */
+	public NonNullList<ItemStack> getContents()
+	{
+		NonNullList<ItemStack> contents = NonNullList.<ItemStack>create();
+		for ( int i = 0 ; i < this.combined.getSlots() ; i++ )
+		{
+			if (!this.combined.getStackInSlot(i).isEmpty()) contents.add(this.combined.getStackInSlot(i));
+		}
+		return contents;
+	}
+
+
+	@Override
+	public void readFromNBT(NBTTagCompound compound)
+	{
+		super.readFromNBT(compound);
+		this.input.deserializeNBT(compound.getCompoundTag("Input"));
+		this.output.deserializeNBT(compound.getCompoundTag("Output"));
+		this.storedExperience = compound.getInteger("StoredExperience");
+		this.owner = (compound.hasUniqueId("Owner") ? compound.getUniqueId("Owner") : null);
+		this.needsUpdate = true;
+	}
+
+	@Override
+	public NBTTagCompound writeToNBT(NBTTagCompound compound)
+	{
+		super.writeToNBT(compound);
+		compound.setTag("Input", this.input.serializeNBT());
+		compound.setTag("Output", this.output.serializeNBT());
+		compound.setInteger("StoredExperience", this.storedExperience);
+		if (this.owner != null) compound.setUniqueId("Owner", this.owner);
+		return compound;
+	}
+
+
+	@Override
+	public boolean hasCapability(Capability<?> capability, EnumFacing facing)
+	{
+		if (capability == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY) return true;
+		return super.hasCapability(capability, facing);
+	}
+
+	@Override
+	public <T> T getCapability(Capability<T> capability, EnumFacing facing)
+	{
+		if (capability == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY)
+		{
+			// the output is extracted from below, the input is inserted from any other side
+			if (facing == null) return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(this.combined);
+			if (facing == EnumFacing.DOWN) return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(this.output);
+			return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.cast(this.input);
+		}
+		return super.getCapability(capability, facing);
+	}
+
+
+	/**
+	 * The input slot, which can only be inserted into from outside the table
+	 *
+	 */
+	private class InputStackHandler extends ItemStackHandler
+	{
+
+		public InputStackHandler()
+		{
+			super(1);
+		}
+
+		@Override
+		public ItemStack extractItem(int slot, int amount, boolean simulate)
+		{
+			return ItemStack.EMPTY;
+		}
+
+		private void shrink(int amount)
+		{
+			ItemStack stack = this.stacks.get(0);
+			stack.shrink(amount);
+			if (stack.isEmpty()) this.stacks.set(0, ItemStack.EMPTY);
+			onContentsChanged(0);
+		}
+
+		@Override
+		protected void onContentsChanged(int slot)
+		{
+			needsUpdate = true;
+			markDirty();
+		}
+
+	}
+
+	/**
+	 * The output slots, which can only be extracted from outside the table
+	 *
+	 */
+	private class OutputStackHandler extends ItemStackHandler
+	{
+
+		public OutputStackHandler()
+		{
+			super(OUTPUT_SLOTS);
+		}
+
+		@Override
+		public ItemStack insertItem(int slot, ItemStack stack, boolean simulate)
+		{
+			return stack;
+		}
+
+		/**
+		 * Adds all of the given stacks to the output, or none of them if they don't all fit.
+		 */
+		private boolean addAll(List<ItemStack> stacks)
+		{
+			NonNullList<ItemStack> result = NonNullList.<ItemStack>withSize(this.stacks.size(), ItemStack.EMPTY);
+			for ( int i = 0 ; i < result.size() ; i++ ) result.set(i, this.stacks.get(i).copy());
+
+			for ( ItemStack stack : stacks )
+			{
+				ItemStack remaining = stack.copy();
+
+				// top up existing stacks of the same item first, then use empty slots
+				for ( int i = 0 ; i < result.size() && !remaining.isEmpty() ; i++ )
+				{
+					ItemStack slotStack = result.get(i);
+					if (!slotStack.isEmpty() && ItemHandlerHelper.canItemStacksStack(slotStack, remaining))
+					{
+						int amount = Math.min(remaining.getCount(), slotStack.getMaxStackSize() - slotStack.getCount());
+						slotStack.grow(amount);
+						remaining.shrink(amount);
+					}
+				}
+				for ( int i = 0 ; i < result.size() && !remaining.isEmpty() ; i++ )
+				{
+					if (result.get(i).isEmpty())
+					{
+						result.set(i, remaining);
+						remaining = ItemStack.EMPTY;
+					}
+				}
+
+				if (!remaining.isEmpty()) return false;
+			}
+
+			for ( int i = 0 ; i < result.size() ; i++ ) this.stacks.set(i, result.get(i));
+			markDirty();
+			return true;
+		}
+
+		@Override
+		protected void onContentsChanged(int slot)
+		{
+			// removing items from the output may make room for a waiting input
+			needsUpdate = true;
+			markDirty();
+		}
+
+	}
+
+}